@@ -0,0 +1,79 @@
+package airAstana.flightStatus.configuration;
+
+import airAstana.flightStatus.event.TokenVersionChangedEvent;
+import airAstana.flightStatus.model.EnumRole;
+import airAstana.flightStatus.model.Role;
+import airAstana.flightStatus.model.User;
+import airAstana.flightStatus.service.TokenVersionService;
+import airAstana.flightStatus.service.impl.JwtServiceImpl;
+import airAstana.flightStatus.service.impl.TokenRevocationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * authentication of a request carrying a valid Bearer token, as done before every secured endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        TokenVersionService tokenVersionService = new TokenVersionService() {
+            @Override
+            public Long getTokenVersion(String username) {
+                return 0L;
+            }
+
+            @Override
+            public long incrementTokenVersion(User user) {
+                return 0L;
+            }
+
+            @Override
+            public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+            }
+        };
+        JwtServiceImpl jwtService = new JwtServiceImpl(tokenVersionService, 900000, 10000, 60000, "", 60000);
+        // no token is revoked and the table is never reloaded, so the repository is never used
+        filter = new JwtAuthenticationFilter(jwtService, new TokenRevocationServiceImpl(null, null, 100000, 0.01, Long.MAX_VALUE));
+
+        User user = new User("benchmark", "password");
+        user.setRole(new Role(EnumRole.USER));
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/flights/arrivals");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
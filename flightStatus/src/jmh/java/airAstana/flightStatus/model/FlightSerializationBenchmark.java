@@ -0,0 +1,57 @@
+package airAstana.flightStatus.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of flight listings, configured like the Spring Boot ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<Flight> flights;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime departure = OffsetDateTime.parse("2024-06-01T10:00:00Z");
+        flights = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            flights.add(new Flight((long) i, "Almaty", "Astana", departure.plusMinutes(i), departure.plusMinutes(i + 120L), Status.INTIME));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFlights() throws Exception {
+        return objectMapper.writeValueAsBytes(flights);
+    }
+}
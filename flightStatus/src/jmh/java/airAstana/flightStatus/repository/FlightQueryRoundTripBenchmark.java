@@ -0,0 +1,204 @@
+package airAstana.flightStatus.repository;
+
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * database path of a filtered arrivals request, before and after exists-then-find was replaced by a single query
+ * selecting through a constructor expression. the view query still reads every column and builds full Flight
+ * instances, it only leaves them out of the persistence context, so singleEntityQuery runs the same single query
+ * returning managed entities to tell the saved round trip apart from the skipped entity tracking.
+ * every variant reads at most the same number of rows, the default page size plus one.
+ * the queries run through Hibernate against an H2 server over a loopback TCP connection,
+ * so every statement is a real round trip; over a network to PostgreSQL each one costs more.
+ * sample time mode reports the latency percentiles, and statements divided by requests gives the round trips per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightQueryRoundTripBenchmark {
+
+    private static final String[] CITIES = {"Almaty", "Astana", "Shymkent", "Aktau", "Atyrau", "Aktobe", "Oral",
+            "Kostanay", "Pavlodar", "Semey", "Taraz", "Turkistan", "Dubai", "Istanbul", "Tbilisi", "Baku", "Tashkent",
+            "Bishkek", "Delhi", "Seoul"};
+
+    private static final int FLIGHTS = 20000;
+
+    /**
+     * the default page size plus the extra flight telling whether there is a next page.
+     */
+    private static final Limit LIMIT = Limit.of(101);
+
+    /**
+     * derived queries of getFlights before the change: an exists check followed by a query returning managed entities,
+     * here limited like the query that replaced them.
+     */
+    public interface ExistsThenFindFlightRepository extends Repository<Flight, Long> {
+
+        boolean existsByOriginIgnoreCase(String origin);
+
+        boolean existsByOriginIgnoreCaseAndDestinationIgnoreCase(String origin, String destination);
+
+        List<Flight> findByOriginIgnoreCaseOrderByArrivalAscIdAsc(String origin, Limit limit);
+
+        List<Flight> findByOriginIgnoreCaseAndDestinationIgnoreCaseOrderByArrivalAscIdAsc(String origin, String destination, Limit limit);
+    }
+
+    /**
+     * requests made and statements they sent to the database, reported as totals per iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long requests;
+
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+            statements = 0;
+        }
+    }
+
+    @Param({"origin", "route"})
+    private String filter;
+
+    private Server server;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private Statistics statistics;
+
+    private ExistsThenFindFlightRepository existsThenFindRepository;
+
+    private FlightRepository flightRepository;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:flights;DB_CLOSE_DELAY=-1", "sa", "");
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("airAstana.flightStatus.model");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.generate_statistics", "true",
+                "hibernate.session.events.log", "false"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        seed(entityManagerFactory);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        existsThenFindRepository = repositoryFactory.getRepository(ExistsThenFindFlightRepository.class);
+        flightRepository = repositoryFactory.getRepository(FlightRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        server.stop();
+    }
+
+    @Benchmark
+    public List<Flight> existsThenFind(RoundTrips roundTrips) {
+        long before = statistics.getPrepareStatementCount();
+        List<Flight> flights;
+        if ("route".equals(filter)) {
+            flights = existsThenFindRepository.existsByOriginIgnoreCaseAndDestinationIgnoreCase("almaty", "astana")
+                    ? existsThenFindRepository.findByOriginIgnoreCaseAndDestinationIgnoreCaseOrderByArrivalAscIdAsc("almaty", "astana", LIMIT)
+                    : List.of();
+        } else {
+            flights = existsThenFindRepository.existsByOriginIgnoreCase("almaty")
+                    ? existsThenFindRepository.findByOriginIgnoreCaseOrderByArrivalAscIdAsc("almaty", LIMIT)
+                    : List.of();
+        }
+        roundTrips.requests++;
+        roundTrips.statements += statistics.getPrepareStatementCount() - before;
+        return flights;
+    }
+
+    @Benchmark
+    public List<Flight> singleEntityQuery(RoundTrips roundTrips) {
+        long before = statistics.getPrepareStatementCount();
+        List<Flight> flights = "route".equals(filter)
+                ? existsThenFindRepository.findByOriginIgnoreCaseAndDestinationIgnoreCaseOrderByArrivalAscIdAsc("almaty", "astana", LIMIT)
+                : existsThenFindRepository.findByOriginIgnoreCaseOrderByArrivalAscIdAsc("almaty", LIMIT);
+        roundTrips.requests++;
+        roundTrips.statements += statistics.getPrepareStatementCount() - before;
+        return flights;
+    }
+
+    @Benchmark
+    public List<Flight> singleViewQuery(RoundTrips roundTrips) {
+        long before = statistics.getPrepareStatementCount();
+        FlightCursor first = FlightCursor.FIRST;
+        List<Flight> flights = "route".equals(filter)
+                ? flightRepository.findViewsByOriginAndDestinationAfter("almaty", "astana", first.getArrival(), first.getId(), LIMIT)
+                : flightRepository.findViewsByOriginAfter("almaty", first.getArrival(), first.getId(), LIMIT);
+        roundTrips.requests++;
+        roundTrips.statements += statistics.getPrepareStatementCount() - before;
+        return flights;
+    }
+
+    /**
+     * stores flights spread evenly over the city pairs, so an origin matches 1000 flights, more than a page,
+     * and a route about 50.
+     */
+    private static void seed(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        OffsetDateTime departure = OffsetDateTime.of(2024, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < FLIGHTS; i++) {
+            String origin = CITIES[i % CITIES.length];
+            String destination = CITIES[(i / CITIES.length + i + 1) % CITIES.length];
+            entityManager.persist(new Flight(null, origin, destination,
+                    departure.plusMinutes(i), departure.plusMinutes(i + 90L), Status.INTIME));
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+}
@@ -0,0 +1,46 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * validation run for every created flight and every lookup by origin or destination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightValidatorBenchmark {
+
+    private final FlightDto flightDto = new FlightDto("Almaty", "Astana",
+            OffsetDateTime.parse("2024-06-01T10:00:00Z"), OffsetDateTime.parse("2024-06-01T12:00:00Z"), Status.INTIME);
+
+    @Benchmark
+    public void validateOrigin() {
+        FlightValidator.validateOrigin("Almaty");
+    }
+
+    @Benchmark
+    public void validateStatus() {
+        FlightValidator.validateStatus(Status.DELAYED);
+    }
+
+    @Benchmark
+    public void validateFlight() {
+        FlightValidator.validateFlight(flightDto);
+    }
+}
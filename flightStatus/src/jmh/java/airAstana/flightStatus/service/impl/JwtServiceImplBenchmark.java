@@ -0,0 +1,82 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.TokenVersionChangedEvent;
+import airAstana.flightStatus.model.EnumRole;
+import airAstana.flightStatus.model.Role;
+import airAstana.flightStatus.model.User;
+import airAstana.flightStatus.model.dto.VerifiedToken;
+import airAstana.flightStatus.service.TokenVersionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * token generation at login and refresh, and token verification on every authenticated request,
+ * once through the verified token cache and once with every token verified from scratch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceImplBenchmark {
+
+    private User user;
+
+    private JwtServiceImpl cachingJwtService;
+
+    private JwtServiceImpl uncachedJwtService;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = new User("benchmark", "password");
+        user.setRole(new Role(EnumRole.USER));
+        TokenVersionService tokenVersionService = new TokenVersionService() {
+            @Override
+            public Long getTokenVersion(String username) {
+                return 0L;
+            }
+
+            @Override
+            public long incrementTokenVersion(User user) {
+                return 0L;
+            }
+
+            @Override
+            public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+            }
+        };
+        JwtKeyRing keyRing = JwtKeyRing.ephemeral(Clock.systemUTC());
+        cachingJwtService = new JwtServiceImpl(tokenVersionService, keyRing, 900000, 10000, 60000, Clock.systemUTC());
+        uncachedJwtService = new JwtServiceImpl(tokenVersionService, keyRing, 900000, 0, 60000, Clock.systemUTC());
+        token = cachingJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyTokenCached() {
+        return cachingJwtService.verifyToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyTokenUncached() {
+        return uncachedJwtService.verifyToken(token);
+    }
+}
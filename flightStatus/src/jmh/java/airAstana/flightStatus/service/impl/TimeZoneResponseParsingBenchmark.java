@@ -0,0 +1,80 @@
+package airAstana.flightStatus.service.impl;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * org.json parsing of Geocoding and Time Zone API responses the way TimeZoneServiceImpl reads them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeZoneResponseParsingBenchmark {
+
+    private static final String GEOCODE_RESPONSE = """
+            {
+               "results" : [
+                  {
+                     "address_components" : [
+                        { "long_name" : "Almaty", "short_name" : "Almaty", "types" : [ "locality", "political" ] },
+                        { "long_name" : "Almaty", "short_name" : "Almaty", "types" : [ "administrative_area_level_1", "political" ] },
+                        { "long_name" : "Kazakhstan", "short_name" : "KZ", "types" : [ "country", "political" ] }
+                     ],
+                     "formatted_address" : "Almaty, Kazakhstan",
+                     "geometry" : {
+                        "bounds" : {
+                           "northeast" : { "lat" : 43.4110742, "lng" : 77.1597837 },
+                           "southwest" : { "lat" : 43.0435023, "lng" : 76.7379456 }
+                        },
+                        "location" : { "lat" : 43.2220146, "lng" : 76.8512485 },
+                        "location_type" : "APPROXIMATE",
+                        "viewport" : {
+                           "northeast" : { "lat" : 43.4110742, "lng" : 77.1597837 },
+                           "southwest" : { "lat" : 43.0435023, "lng" : 76.7379456 }
+                        }
+                     },
+                     "place_id" : "ChIJ2TPM1gRpgzgRfa3UZH6rUDc",
+                     "types" : [ "locality", "political" ]
+                  }
+               ],
+               "status" : "OK"
+            }
+            """;
+
+    private static final String TIME_ZONE_RESPONSE = """
+            {
+               "dstOffset" : 0,
+               "rawOffset" : 18000,
+               "status" : "OK",
+               "timeZoneId" : "Asia/Almaty",
+               "timeZoneName" : "East Kazakhstan Time"
+            }
+            """;
+
+    @Benchmark
+    public double[] parseGeocodeResponse() {
+        JSONObject jsonObject = new JSONObject(GEOCODE_RESPONSE);
+        JSONObject location = jsonObject.getJSONArray("results").getJSONObject(0).getJSONObject("geometry").getJSONObject("location");
+        return new double[]{location.getDouble("lat"), location.getDouble("lng")};
+    }
+
+    @Benchmark
+    public ZoneId parseTimeZoneResponse() {
+        JSONObject jsonObject = new JSONObject(TIME_ZONE_RESPONSE);
+        return ZoneId.of(jsonObject.optString("timeZoneId"));
+    }
+}
@@ -0,0 +1,165 @@
+package airAstana.flightStatus.configuration;
+
+import airAstana.flightStatus.exception.PasswordHashingBusyException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * password encoder running the hashing of its delegate on a small dedicated thread pool with a bounded queue.
+ * a burst of logins or registrations then occupies at most the threads of the pool instead of every request thread
+ * and core, and requests beyond the queue capacity fail at once with PasswordHashingBusyException.
+ */
+@ManagedResource(objectName = "airAstana.flightStatus:type=PasswordEncoder", description = "password hashing executor")
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong totalHashNanos = new AtomicLong();
+
+    private final AtomicLong hashes = new AtomicLong();
+
+    /**
+     * @param delegate      encoder doing the hashing
+     * @param threads       number of threads hashing passwords concurrently
+     * @param queueCapacity number of hashing requests that may wait for a thread
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * finds the BCrypt strength whose hash time comes closest to the target on this machine.
+     * the time of one hash at the minimum strength is measured and doubled per additional round,
+     * the result never goes below strength 10.
+     *
+     * @param targetMillis desired time of one hash in milliseconds
+     * @return BCrypt strength between 10 and 16
+     */
+    public static int calibrateBCryptStrength(long targetMillis) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        encoder.encode("calibration");
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        double measuredMillis = Math.max((System.nanoTime() - start) / 1_000_000.0, 0.001);
+
+        int strength = MIN_BCRYPT_STRENGTH + (int) Math.round(Math.log(targetMillis / measuredMillis) / Math.log(2));
+        strength = Math.max(MIN_BCRYPT_STRENGTH, Math.min(MAX_BCRYPT_STRENGTH, strength));
+        logger.info(String.format("BCrypt strength %d calibrated for a target of %d ms, strength %d took %.1f ms",
+                strength, targetMillis, MIN_BCRYPT_STRENGTH, measuredMillis));
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * runs a hashing task on the pool and waits for its result.
+     *
+     * @throws PasswordHashingBusyException if the queue is full or the waiting thread is interrupted
+     */
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    totalHashNanos.addAndGet(System.nanoTime() - start);
+                    hashes.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException("Too many concurrent password hashing requests");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @ManagedAttribute(description = "number of passwords being hashed right now")
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "number of hashing requests waiting for a thread")
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    @ManagedAttribute(description = "number of hashing requests rejected because the queue was full")
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @ManagedAttribute(description = "number of finished hashing requests")
+    public long getCompleted() {
+        return hashes.get();
+    }
+
+    @ManagedAttribute(description = "average time of one hashing request in milliseconds, without waiting time")
+    public double getAverageHashMillis() {
+        long count = hashes.get();
+        return count == 0 ? 0 : totalHashNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
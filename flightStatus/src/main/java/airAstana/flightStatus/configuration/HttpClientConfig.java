@@ -0,0 +1,43 @@
+package airAstana.flightStatus.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * configuration class for the HTTP client shared by the calls to external APIs.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * provides one HttpClient for all time zone lookups, so connections are pooled and reused instead of
+     * paying connection and TLS setup on every lookup.
+     * responses are handled on a dedicated thread pool, so a slow API cannot occupy the common pool.
+     * in virtual thread mode every response is handled on its own virtual thread instead.
+     *
+     * @param connectTimeoutMillis maximum time to establish a connection
+     * @param threads              number of threads handling responses, unused in virtual thread mode
+     * @param virtualThreads       whether to handle responses on virtual threads
+     * @return HttpClient preferring HTTP/2
+     */
+    @Bean
+    public HttpClient timeZoneHttpClient(@Value("${timezone.http.connect-timeout:2000}") long connectTimeoutMillis,
+                                         @Value("${timezone.http.threads:4}") int threads,
+                                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ExecutorService executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("timezone-http-", 0).factory())
+                : Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("timezone-http-", 0).daemon().factory());
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(executor)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
@@ -1,7 +1,8 @@
 package airAstana.flightStatus.configuration;
 
+import airAstana.flightStatus.model.dto.VerifiedToken;
 import airAstana.flightStatus.service.JwtService;
-import airAstana.flightStatus.service.UserService;
+import airAstana.flightStatus.service.TokenRevocationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -16,7 +17,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -24,16 +24,17 @@ import java.io.IOException;
 
 /**
  * JWT authentication filter to process JWT tokens for authentication.
+ * Tokens that cannot be verified or were revoked leave the request unauthenticated.
  */
 @Configuration
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserService userService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
-        this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -61,7 +62,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final VerifiedToken verifiedToken;
 
         if (StringUtils.isEmpty(authHeader) || !StringUtils.startsWith(authHeader, "Bearer")) {
             filterChain.doFilter(request, response);
@@ -69,22 +70,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUserName(jwt);
+        verifiedToken = jwtService.verifyToken(jwt);
 
-        if (StringUtils.isNotEmpty(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.userDetailsService().loadUserByUsername(username);
-
-            if (jwtService.validateToken(jwt, userDetails)) {
-                SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
-                UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                securityContext.setAuthentication(token);
-                SecurityContextHolder.setContext(securityContext);
-            }
+        if (verifiedToken != null && !tokenRevocationService.isRevoked(verifiedToken.getTokenId())
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+            UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
+                    verifiedToken.getSubject(),
+                    null,
+                    verifiedToken.getAuthorities()
+            );
+            token.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            securityContext.setAuthentication(token);
+            SecurityContextHolder.setContext(securityContext);
         }
         filterChain.doFilter(request, response);
     }
@@ -3,6 +3,8 @@ package airAstana.flightStatus.configuration;
 import airAstana.flightStatus.model.EnumRole;
 import airAstana.flightStatus.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,7 +16,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
@@ -28,10 +29,22 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserService userService;
+    private final int bcryptStrength;
+    private final long bcryptTargetHashMillis;
+    private final int hashingThreads;
+    private final int hashingQueueCapacity;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, UserService userService) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, UserService userService,
+                          @Value("${password.bcrypt.strength:0}") int bcryptStrength,
+                          @Value("${password.bcrypt.target-hash-time:250}") long bcryptTargetHashMillis,
+                          @Value("${password.hashing.threads:0}") int hashingThreads,
+                          @Value("${password.hashing.queue-capacity:64}") int hashingQueueCapacity) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.userService = userService;
+        this.bcryptStrength = bcryptStrength;
+        this.bcryptTargetHashMillis = bcryptTargetHashMillis;
+        this.hashingThreads = hashingThreads;
+        this.hashingQueueCapacity = hashingQueueCapacity;
     }
 
     /**
@@ -47,12 +60,14 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(request -> request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/swagger-ui/**")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/auth/login", "POST")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/auth/register", "POST")).permitAll()
+                        .requestMatchers(new AntPathRequestMatcher("/auth/refresh", "POST")).permitAll()
                         .requestMatchers(new AntPathRequestMatcher("/v3/**")).permitAll()
-                        .requestMatchers("/flights/add", "/flights/edit").hasAuthority(EnumRole.ADMIN.name())
-                        .requestMatchers("/flights/arrivals").hasAnyAuthority(EnumRole.USER.name(), EnumRole.ADMIN.name())
+                        .requestMatchers("/flights/add/**", "/flights/batch", "/flights/import/**", "/flights/edit/**").hasAuthority(EnumRole.ADMIN.name())
+                        .requestMatchers("/flights/arrivals", "/flights/export", "/flights/changes", "/flights/stream").hasAnyAuthority(EnumRole.USER.name(), EnumRole.ADMIN.name())
                         .requestMatchers("/auth/admin").hasAuthority(EnumRole.USER.name())
                         .anyRequest().authenticated())
                 .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -76,14 +91,18 @@ public class SecurityConfig {
     }
 
     /**
-     * provides a PasswordEncoder instance using BCryptPasswordEncoder.
+     * provides a PasswordEncoder instance using BCryptPasswordEncoder on a bounded executor.
+     * without a configured strength, the strength is calibrated to the target hash time at startup.
+     * without a configured number of threads, half of the available processors hash passwords.
      *
      * @return PasswordEncoder instance
      */
     @Bean
     @Operation(summary = "Provides a PasswordEncoder instance using BCryptPasswordEncoder")
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = bcryptStrength > 0 ? bcryptStrength : BoundedPasswordEncoder.calibrateBCryptStrength(bcryptTargetHashMillis);
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, hashingQueueCapacity);
     }
 
     /**
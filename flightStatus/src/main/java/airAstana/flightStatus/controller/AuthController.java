@@ -1,11 +1,15 @@
 package airAstana.flightStatus.controller;
 
+import airAstana.flightStatus.exception.InvalidRefreshTokenException;
+import airAstana.flightStatus.exception.PasswordHashingBusyException;
 import airAstana.flightStatus.exception.UsernameTakenException;
 import airAstana.flightStatus.model.User;
 import airAstana.flightStatus.model.dto.JwtAuthResponse;
+import airAstana.flightStatus.model.dto.RefreshTokenRequest;
 import airAstana.flightStatus.model.dto.RegisterLoginRequest;
 import airAstana.flightStatus.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,7 +30,8 @@ public class AuthController {
      * registers a new user.
      *
      * @param registerRequest registerLoginRequest containing user registration details
-     * @return responseEntity with user information if registration is successful else returns bad request
+     * @return responseEntity with user information if registration is successful, service unavailable if too many
+     * passwords are being hashed, else returns bad request
      */
     @PostMapping("/register")
     @Operation(summary = "registers a new user")
@@ -35,6 +40,8 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED).body(authService.register(registerRequest));
         } catch (UsernameTakenException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
@@ -42,7 +49,8 @@ public class AuthController {
      * logs in a user and generates JWT authentication token.
      *
      * @param loginRequest registerLoginRequest containing user login details
-     * @return responseEntity with JwtAuthResponse containing JWT token if login is successful else returns bad request
+     * @return responseEntity with JwtAuthResponse containing JWT token if login is successful, service unavailable if
+     * too many passwords are being hashed, else returns bad request
      */
     @PostMapping("/login")
     @Operation(summary = "logs in a user and generates JWT authentication token")
@@ -51,9 +59,43 @@ public class AuthController {
             return ResponseEntity.ok(authService.login(loginRequest));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 
+    /**
+     * exchanges a refresh token for a new JWT authentication token and refresh token.
+     *
+     * @param refreshRequest refreshTokenRequest containing the refresh token
+     * @return responseEntity with JwtAuthResponse containing the new tokens, or unauthorized if the refresh token
+     * is invalid, expired or was already used
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "exchanges a refresh token for a new JWT authentication token")
+    public ResponseEntity<JwtAuthResponse> refresh(@RequestBody RefreshTokenRequest refreshRequest) {
+        try {
+            return ResponseEntity.ok(authService.refresh(refreshRequest));
+        } catch (InvalidRefreshTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    /**
+     * logs out by revoking the JWT authentication token of the request and the given refresh token.
+     *
+     * @param authorization  authorization header with the Bearer token
+     * @param refreshRequest refreshTokenRequest containing the refresh token to revoke (optional)
+     * @return responseEntity with no content
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "logs out by revoking the JWT authentication token and refresh token")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest refreshRequest) {
+        authService.logout(authorization.substring("Bearer ".length()), refreshRequest);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * endpoint for getting the admin role
      */
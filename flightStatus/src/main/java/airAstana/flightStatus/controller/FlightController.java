@@ -1,18 +1,43 @@
 package airAstana.flightStatus.controller;
 
+import airAstana.flightStatus.exception.ChangeSequenceExpiredException;
+import airAstana.flightStatus.exception.FlightImportException;
+import airAstana.flightStatus.exception.FlightQueueFullException;
 import airAstana.flightStatus.exception.FlightWithIdNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithDestinationNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginAndDestinationNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginNotFoundException;
+import airAstana.flightStatus.exception.TimeZoneServiceUnavailableException;
 import airAstana.flightStatus.model.Flight;
 import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightBulkStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightChanges;
+import airAstana.flightStatus.model.dto.FlightCreationStatus;
 import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.model.dto.FlightImportResult;
+import airAstana.flightStatus.model.dto.FlightPage;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateResult;
+import airAstana.flightStatus.service.FlightChangeLogService;
+import airAstana.flightStatus.service.FlightCreationPipelineService;
+import airAstana.flightStatus.service.FlightExportService;
+import airAstana.flightStatus.service.FlightImportService;
 import airAstana.flightStatus.service.FlightService;
+import airAstana.flightStatus.service.FlightStatusStreamService;
+import airAstana.flightStatus.service.FlightVersionService;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -22,17 +47,43 @@ import java.util.List;
 @RequestMapping("/flights")
 public class FlightController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String NDJSON = "application/x-ndjson";
+
     private final FlightService flightService;
 
-    public FlightController(FlightService flightService) {
+    private final FlightExportService flightExportService;
+
+    private final FlightVersionService flightVersionService;
+
+    private final FlightChangeLogService flightChangeLogService;
+
+    private final FlightStatusStreamService flightStatusStreamService;
+
+    private final FlightImportService flightImportService;
+
+    private final FlightCreationPipelineService flightCreationPipelineService;
+
+    public FlightController(FlightService flightService, FlightExportService flightExportService,
+                            FlightVersionService flightVersionService, FlightChangeLogService flightChangeLogService,
+                            FlightStatusStreamService flightStatusStreamService, FlightImportService flightImportService,
+                            FlightCreationPipelineService flightCreationPipelineService) {
         this.flightService = flightService;
+        this.flightExportService = flightExportService;
+        this.flightVersionService = flightVersionService;
+        this.flightChangeLogService = flightChangeLogService;
+        this.flightStatusStreamService = flightStatusStreamService;
+        this.flightImportService = flightImportService;
+        this.flightCreationPipelineService = flightCreationPipelineService;
     }
 
     /**
      * endpoint to add a new flight.
      *
      * @param flightDto FlightDto containing flight details
-     * @return ResponseEntity with added Flight object if successful else returns bad request
+     * @return ResponseEntity with added Flight object if successful else returns bad request, or service unavailable
+     * if the time zone of a city cannot be resolved right now
      */
     @PostMapping("/add")
     @Operation(summary = "add a new flight")
@@ -41,29 +92,228 @@ public class FlightController {
             return ResponseEntity.status(HttpStatus.CREATED).body(flightService.addFlight(flightDto));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (TimeZoneServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * endpoint to queue a new flight for creation in the background.
+     * the flight is validated right away, and its time zones are resolved and the flight is saved by a background batch,
+     * whose progress can be followed at the location returned.
+     *
+     * @param flightDto FlightDto containing flight details
+     * @return ResponseEntity with the queued status and its tracking ID if accepted else returns bad request,
+     * or service unavailable if the queue is full
+     */
+    @PostMapping(value = "/add", params = "async=true")
+    @Operation(summary = "queue a new flight for creation in the background")
+    public ResponseEntity<FlightCreationStatus> submitFlight(@RequestBody FlightDto flightDto) {
+        try {
+            FlightCreationStatus status = flightCreationPipelineService.submit(flightDto);
+            return ResponseEntity.accepted().location(URI.create("/flights/add/" + status.getTrackingId())).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (FlightQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * endpoint to retrieve the progress of a flight queued for creation.
+     *
+     * @param trackingId Path variable for the tracking ID returned when the flight was queued
+     * @return ResponseEntity with the status of the creation if found else returns not found
+     */
+    @GetMapping("/add/{trackingId}")
+    @Operation(summary = "retrieve the progress of a flight queued for creation")
+    public ResponseEntity<FlightCreationStatus> getFlightCreationStatus(@PathVariable String trackingId) {
+        FlightCreationStatus status = flightCreationPipelineService.getStatus(trackingId);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    /**
+     * endpoint to add a batch of new flights.
+     *
+     * @param flightDtos list of FlightDto containing flight details
+     * @return ResponseEntity with added Flight objects if successful else returns bad request, or service unavailable
+     * if the time zone of a city cannot be resolved right now
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "add a batch of new flights")
+    public ResponseEntity<List<Flight>> addFlights(@RequestBody List<FlightDto> flightDtos) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(flightService.addFlights(flightDtos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (TimeZoneServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * endpoint to import flights from an uploaded CSV schedule.
+     * the file is streamed into the database without being held in memory; rows failing validation are
+     * reported with their line numbers and the remaining rows are imported.
+     *
+     * @param file CSV file with the columns origin, destination, departure, arrival and status
+     * @return ResponseEntity with the import outcome if successful else returns service unavailable or internal server error
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "import flights from a CSV schedule")
+    public ResponseEntity<FlightImportResult> importFlights(@RequestParam("file") MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(flightImportService.importFlights(inputStream));
+        } catch (TimeZoneServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException | FlightImportException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * endpoint to import flights from a CSV schedule already present in the server's import directory.
+     *
+     * @param name Name of the file in the import directory
+     * @return ResponseEntity with the import outcome if successful else returns bad request, service unavailable or internal server error
+     */
+    @PostMapping("/import/local")
+    @Operation(summary = "import flights from a CSV schedule in the import directory")
+    public ResponseEntity<FlightImportResult> importLocalFile(@RequestParam String name) {
+        try {
+            return ResponseEntity.ok(flightImportService.importLocalFile(name));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (TimeZoneServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException | FlightImportException e) {
+            return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
-     * endpoint to retrieve flights based on origin and/or destination.
+     * endpoint to retrieve a page of flights based on origin and/or destination.
+     * the cursor of the next page is returned in the X-Next-Cursor header if there are more flights.
+     * responses carry an ETag while the flight index is loaded, and a matching If-None-Match header is answered with
+     * not modified without reading any flights. the parameters are validated before, so an invalid request is never
+     * answered as not modified. the ETag is read before and after the flights and left out if a change landed in between,
+     * so a tag is never attached to flights older than the version it names.
      *
      * @param origin      Optional parameter for flight origin
      * @param destination Optional parameter for flight destination
-     * @return ResponseEntity with list of Flight objects matching criteria if found else returns not found
+     * @param cursor      Optional cursor returned with the previous page
+     * @param limit       Optional maximum number of flights in the page
+     * @param ifNoneMatch Optional entity tags of pages the client already has
+     * @return ResponseEntity with list of Flight objects matching criteria if found else returns not modified, not found or bad request
      */
     @GetMapping("/arrivals")
-    @Operation(summary = "retrieve flights based on origin and/or destination sorted by arrival")
+    @Operation(summary = "retrieve a page of flights based on origin and/or destination sorted by arrival")
     public ResponseEntity<List<Flight>> getFlights(
             @RequestParam(required = false) String origin,
-            @RequestParam(required = false) String destination) {
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(flightService.getFlights(origin, destination));
+            String eTag = flightVersionService.getETag(origin, destination, cursor, limit);
+            if (eTag != null && matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+            }
+
+            FlightPage page = flightService.getFlights(origin, destination, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+            if (eTag != null && eTag.equals(flightVersionService.getETag(origin, destination, cursor, limit))) {
+                response.eTag(eTag);
+            }
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getFlights());
         } catch (FlightsWithOriginNotFoundException | FlightsWithDestinationNotFoundException |
                  FlightsWithOriginAndDestinationNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * checks if an If-None-Match header matches an entity tag.
+     *
+     * @param ifNoneMatch value of the If-None-Match header, may be null
+     * @param eTag        current entity tag
+     * @return true if the header lists the entity tag or is a wildcard, false otherwise
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * endpoint to retrieve flight changes after a sequence.
+     * clients start by calling it without a sequence to learn the current one, then download the flights
+     * and follow the feed from that sequence.
+     *
+     * @param since Optional sequence of the last change the client has seen
+     * @param limit Optional maximum number of changes in the batch
+     * @return ResponseEntity with a batch of changes else returns gone if the client must download the flights again, or bad request
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "retrieve flight changes after a sequence")
+    public ResponseEntity<FlightChanges> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(flightChangeLogService.getChanges(since, limit));
+        } catch (ChangeSequenceExpiredException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * endpoint to subscribe to flight status changes as Server-Sent Events.
+     *
+     * @param origin      Optional parameter for flight origin
+     * @param destination Optional parameter for flight destination
+     * @return ResponseEntity with the SseEmitter sending a status event for every matching change
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "subscribe to flight status changes based on origin and/or destination")
+    public ResponseEntity<SseEmitter> streamFlightStatus(
+            @RequestParam(required = false) String origin,
+            @RequestParam(required = false) String destination) {
+        try {
+            return ResponseEntity.ok(flightStatusStreamService.subscribe(origin, destination));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * endpoint to stream all flights sorted by arrival as newline-delimited JSON.
+     *
+     * @return ResponseEntity with a body that writes the flights as they are read from the database
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    @Operation(summary = "stream all flights sorted by arrival as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportFlights() {
+        StreamingResponseBody body = flightExportService::exportFlights;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     /**
      * endpoint to update the status of a flight.
      *
@@ -83,4 +333,21 @@ public class FlightController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * endpoint to update the statuses of many flights in one transaction.
+     * the flights are given either as a list of IDs with new statuses or as an origin and departure window with a new status.
+     *
+     * @param bulkStatusUpdateDto FlightBulkStatusUpdateDto containing the flights and their new statuses
+     * @return ResponseEntity with the outcome for every flight if successful else returns bad request
+     */
+    @PutMapping("/edit/bulk")
+    @Operation(summary = "update the statuses of many flights")
+    public ResponseEntity<List<FlightStatusUpdateResult>> updateFlightStatuses(@RequestBody FlightBulkStatusUpdateDto bulkStatusUpdateDto) {
+        try {
+            return ResponseEntity.ok(flightService.updateFlightStatuses(bulkStatusUpdateDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package airAstana.flightStatus.event;
+
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import lombok.Getter;
+
+/**
+ * application event published whenever a flight is created or its status changes.
+ * listeners receive a detached copy of the flight, so later changes to the managed entity are not visible to them.
+ */
+@Getter
+public class FlightChangedEvent {
+
+    private final Flight flight;
+
+    private final Status previousStatus;
+
+    /**
+     * creates an event for a flight change.
+     *
+     * @param flight         flight after the change
+     * @param previousStatus status before the change, null if the flight has just been created
+     */
+    public FlightChangedEvent(Flight flight, Status previousStatus) {
+        this.flight = new Flight(flight.getId(), flight.getOrigin(), flight.getDestination(),
+                flight.getDeparture(), flight.getArrival(), flight.getStatus(), flight.getUpdatedAt());
+        this.previousStatus = previousStatus;
+    }
+
+    /**
+     * checks if the event describes a newly created flight.
+     *
+     * @return true if the flight has just been created, false if its status changed
+     */
+    public boolean isCreated() {
+        return previousStatus == null;
+    }
+}
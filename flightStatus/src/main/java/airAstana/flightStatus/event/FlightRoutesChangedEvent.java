@@ -0,0 +1,37 @@
+package airAstana.flightStatus.event;
+
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * application event published once for a bulk change of many flights, such as an import, instead of one
+ * FlightChangedEvent per flight. it names the routes whose listings changed and the change time stored on every
+ * changed flight, so listeners can reload exactly those flights once the change is committed.
+ * bulk changes are neither recorded in the flight change feed nor streamed to subscribers.
+ */
+@Getter
+public class FlightRoutesChangedEvent {
+
+    private final OffsetDateTime updatedAt;
+
+    private final List<Route> routes;
+
+    /**
+     * creates an event for a bulk flight change.
+     *
+     * @param updatedAt change time stored on the changed flights
+     * @param routes    distinct routes of the changed flights
+     */
+    public FlightRoutesChangedEvent(OffsetDateTime updatedAt, List<Route> routes) {
+        this.updatedAt = updatedAt;
+        this.routes = List.copyOf(routes);
+    }
+
+    /**
+     * origin and destination of changed flights.
+     */
+    public record Route(String origin, String destination) {
+    }
+}
@@ -0,0 +1,16 @@
+package airAstana.flightStatus.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * application event published whenever a token is revoked before its expiration.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenRevokedEvent {
+
+    private final String tokenId;
+
+    private final long expiresAt;
+}
@@ -0,0 +1,16 @@
+package airAstana.flightStatus.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * application event published whenever the token version of a user is incremented.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenVersionChangedEvent {
+
+    private final String username;
+
+    private final long tokenVersion;
+}
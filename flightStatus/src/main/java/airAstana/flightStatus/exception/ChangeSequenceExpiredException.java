@@ -0,0 +1,8 @@
+package airAstana.flightStatus.exception;
+
+
+public class ChangeSequenceExpiredException extends RuntimeException {
+    public ChangeSequenceExpiredException(String message) {
+        super(message);
+    }
+}
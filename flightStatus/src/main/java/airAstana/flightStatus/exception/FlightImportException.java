@@ -0,0 +1,8 @@
+package airAstana.flightStatus.exception;
+
+
+public class FlightImportException extends RuntimeException {
+    public FlightImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
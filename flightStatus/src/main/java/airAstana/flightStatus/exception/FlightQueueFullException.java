@@ -0,0 +1,8 @@
+package airAstana.flightStatus.exception;
+
+
+public class FlightQueueFullException extends RuntimeException {
+    public FlightQueueFullException(String message) {
+        super(message);
+    }
+}
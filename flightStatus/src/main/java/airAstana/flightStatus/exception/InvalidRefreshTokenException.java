@@ -0,0 +1,8 @@
+package airAstana.flightStatus.exception;
+
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package airAstana.flightStatus.exception;
+
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
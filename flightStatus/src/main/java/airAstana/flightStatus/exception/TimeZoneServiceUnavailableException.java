@@ -0,0 +1,8 @@
+package airAstana.flightStatus.exception;
+
+
+public class TimeZoneServiceUnavailableException extends RuntimeException {
+    public TimeZoneServiceUnavailableException(String message) {
+        super(message);
+    }
+}
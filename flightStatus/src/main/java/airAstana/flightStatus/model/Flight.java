@@ -1,5 +1,6 @@
 package airAstana.flightStatus.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -7,6 +8,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 
 /**
  * represents a flight entity.
@@ -18,8 +21,15 @@ import java.time.OffsetDateTime;
 @NoArgsConstructor
 public class Flight {
 
+    /**
+     * increment of flights_id_seq. every value v taken from the sequence reserves the IDs v - 49 to v,
+     * so inserts outside of JPA must take their IDs from whole blocks as well.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_id_seq")
+    @SequenceGenerator(name = "flights_id_seq", sequenceName = "flights_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Schema(description = "unique identifier for the flight")
     private Long id;
 
@@ -38,4 +48,30 @@ public class Flight {
     @Enumerated(EnumType.STRING)
     @Schema(description = "status of the flight (SCHEDULED, DELAYED, CANCELLED)")
     private Status status;
+
+    /**
+     * time of the last change of the flight, used by nodes to pick up flights changed elsewhere.
+     */
+    @JsonIgnore
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    public Flight(Long id, String origin, String destination, OffsetDateTime departure, OffsetDateTime arrival, Status status) {
+        this(id, origin, destination, departure, arrival, status, null);
+    }
+
+    /**
+     * current time truncated to the microsecond precision of the updated_at column,
+     * so a flight read back from the database carries the same time as the instance it was saved from.
+     *
+     * @return current time in UTC
+     */
+    public static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @PrePersist
+    void onPersist() {
+        updatedAt = now();
+    }
 }
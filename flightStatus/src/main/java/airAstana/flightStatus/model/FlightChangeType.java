@@ -0,0 +1,7 @@
+package airAstana.flightStatus.model;
+
+
+public enum FlightChangeType {
+    CREATED,
+    STATUS_CHANGED
+}
@@ -0,0 +1,8 @@
+package airAstana.flightStatus.model;
+
+
+public enum FlightCreationState {
+    QUEUED,
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package airAstana.flightStatus.model;
+
+
+public enum FlightUpdateOutcome {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND
+}
@@ -0,0 +1,40 @@
+package airAstana.flightStatus.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * represents an issued refresh token, stored by the digest of its value.
+ */
+@Data
+@Entity
+@Table(name = "refresh_tokens")
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @Schema(description = "SHA-256 digest of the refresh token")
+    private String digest;
+
+    @Schema(description = "username of the user the token was issued to")
+    private String username;
+
+    @Schema(description = "digest of the first token issued at the login this token descends from")
+    private String family;
+
+    @Column(name = "expires_at")
+    @Schema(description = "expiration of the refresh token")
+    private OffsetDateTime expiresAt;
+
+    @Schema(description = "whether the token was already exchanged for its successor")
+    private boolean used;
+}
@@ -0,0 +1,35 @@
+package airAstana.flightStatus.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * represents a JWT revoked before its expiration.
+ */
+@Data
+@Entity
+@Table(name = "revoked_tokens")
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Schema(description = "ID (jti claim) of the revoked token")
+    private String jti;
+
+    @Column(name = "expires_at")
+    @Schema(description = "expiration of the revoked token, after which it no longer needs to be kept")
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "revoked_at")
+    @Schema(description = "time of the revocation, by which other nodes find revocations they have not loaded yet")
+    private OffsetDateTime revokedAt;
+}
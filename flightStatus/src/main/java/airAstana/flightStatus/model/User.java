@@ -40,6 +40,10 @@ public class User implements UserDetails {
     @Setter
     private Role role;
 
+    @Column(name = "token_version", nullable = false)
+    @Schema(description = "version of the issued tokens, incremented to invalidate tokens issued before a role change")
+    private long tokenVersion;
+
     /**
      * constructor to initialize a user with username and password.
      *
@@ -0,0 +1,34 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * status changes for many flights, given either as a list of flights or as a filter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightBulkStatusUpdateDto {
+
+    @Schema(description = "flights to update with their new statuses, mutually exclusive with the filter")
+    private List<FlightStatusUpdateDto> updates;
+
+    @Schema(description = "origin airport city of the flights to update")
+    private String origin;
+
+    @Schema(description = "start of the departure window (inclusive) in ISO-8601 format with offset")
+    private OffsetDateTime departureFrom;
+
+    @Schema(description = "end of the departure window (exclusive) in ISO-8601 format with offset")
+    private OffsetDateTime departureTo;
+
+    @Schema(description = "new status of the flights matching the filter")
+    private Status status;
+}
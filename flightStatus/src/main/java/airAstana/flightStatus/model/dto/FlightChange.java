@@ -0,0 +1,26 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightChangeType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * a single entry of the flight change feed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightChange {
+
+    @Schema(description = "sequence number of the change, increasing with every change")
+    private long sequence;
+
+    @Schema(description = "type of the change (CREATED, STATUS_CHANGED)")
+    private FlightChangeType type;
+
+    @Schema(description = "flight after the change")
+    private Flight flight;
+}
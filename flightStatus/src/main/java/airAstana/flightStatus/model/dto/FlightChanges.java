@@ -0,0 +1,26 @@
+package airAstana.flightStatus.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * a batch of the flight change feed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightChanges {
+
+    @Schema(description = "changes after the requested sequence, oldest first")
+    private List<FlightChange> changes;
+
+    @Schema(description = "sequence to request the next batch with")
+    private long lastSequence;
+
+    @Schema(description = "whether more changes are available after this batch")
+    private boolean hasMore;
+}
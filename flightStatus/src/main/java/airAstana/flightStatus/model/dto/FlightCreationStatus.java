@@ -0,0 +1,29 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightCreationState;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * progress of a flight queued for asynchronous creation.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightCreationStatus {
+
+    @Schema(description = "tracking ID returned when the flight was queued")
+    private String trackingId;
+
+    @Schema(description = "state of the creation (QUEUED, CREATED, FAILED)")
+    private FlightCreationState state;
+
+    @Schema(description = "created flight, present once the state is CREATED")
+    private Flight flight;
+
+    @Schema(description = "reason the creation failed, present once the state is FAILED")
+    private String error;
+}
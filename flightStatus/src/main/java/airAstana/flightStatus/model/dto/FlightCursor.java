@@ -0,0 +1,68 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.Flight;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * position in the flight listing ordered by arrival and ID, exchanged with clients as an opaque string.
+ */
+@Data
+@AllArgsConstructor
+public class FlightCursor {
+
+    /**
+     * cursor positioned before any flight, used for the first page.
+     */
+    public static final FlightCursor FIRST = new FlightCursor(OffsetDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), 0L);
+
+    private final OffsetDateTime arrival;
+
+    private final Long id;
+
+    /**
+     * creates a cursor positioned right after the given flight.
+     *
+     * @param flight last flight of a page
+     * @return cursor pointing after the flight
+     */
+    public static FlightCursor after(Flight flight) {
+        return new FlightCursor(flight.getArrival(), flight.getId());
+    }
+
+    /**
+     * encodes the cursor into an opaque URL-safe string.
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        String value = arrival.toInstant() + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor encoded cursor
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static FlightCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(',');
+            Instant arrival = Instant.parse(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new FlightCursor(arrival.atOffset(ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor provided: " + cursor);
+        }
+    }
+}
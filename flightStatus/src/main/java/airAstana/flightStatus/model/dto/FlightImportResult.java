@@ -0,0 +1,50 @@
+package airAstana.flightStatus.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * outcome of a flight schedule import.
+ */
+@Data
+@NoArgsConstructor
+public class FlightImportResult {
+
+    @Schema(description = "number of data rows read from the file")
+    private long rows;
+
+    @Schema(description = "number of flights inserted")
+    private long imported;
+
+    @Schema(description = "number of valid rows skipped because the flight already exists")
+    private long duplicates;
+
+    @Schema(description = "number of rows rejected by validation")
+    private long rejected;
+
+    @Schema(description = "first rejected rows with their line numbers")
+    private List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    @Schema(description = "import throughput in rows per second")
+    private double rowsPerSecond;
+
+    /**
+     * a row rejected by validation.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RejectedRow {
+
+        @Schema(description = "line number in the file, starting from 1")
+        private long line;
+
+        @Schema(description = "reason the row was rejected")
+        private String reason;
+    }
+}
@@ -0,0 +1,21 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.Flight;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * a page of flights sorted by arrival.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightPage {
+
+    private List<Flight> flights;
+
+    private String nextCursor;
+}
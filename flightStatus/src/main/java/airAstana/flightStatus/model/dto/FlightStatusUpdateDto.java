@@ -0,0 +1,22 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * new status for a single flight.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightStatusUpdateDto {
+
+    @Schema(description = "ID of the flight")
+    private Long id;
+
+    @Schema(description = "new status of the flight")
+    private Status status;
+}
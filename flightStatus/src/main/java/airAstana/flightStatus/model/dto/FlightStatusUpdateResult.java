@@ -0,0 +1,29 @@
+package airAstana.flightStatus.model.dto;
+
+import airAstana.flightStatus.model.FlightUpdateOutcome;
+import airAstana.flightStatus.model.Status;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * outcome of a status change for a single flight.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightStatusUpdateResult {
+
+    @Schema(description = "ID of the flight")
+    private Long id;
+
+    @Schema(description = "outcome of the change (UPDATED, UNCHANGED, NOT_FOUND)")
+    private FlightUpdateOutcome outcome;
+
+    @Schema(description = "status before the change, absent if the flight was not found")
+    private Status previousStatus;
+
+    @Schema(description = "status after the change, absent if the flight was not found")
+    private Status status;
+}
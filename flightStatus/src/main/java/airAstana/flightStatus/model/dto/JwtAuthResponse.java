@@ -11,4 +11,7 @@ public class JwtAuthResponse {
 
     @Schema(description = "JWT token for authentication")
     private String token;
+
+    @Schema(description = "opaque token to obtain a new JWT token from /auth/refresh, valid for a single use")
+    private String refreshToken;
 }
@@ -0,0 +1,18 @@
+package airAstana.flightStatus.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * a request for a new access token.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequest {
+
+    @Schema(description = "refresh token returned by the last login or refresh")
+    private String refreshToken;
+}
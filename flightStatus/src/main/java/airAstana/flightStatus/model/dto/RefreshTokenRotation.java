@@ -0,0 +1,18 @@
+package airAstana.flightStatus.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * a refresh token exchanged for its successor.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRotation {
+
+    private String username;
+
+    private String refreshToken;
+}
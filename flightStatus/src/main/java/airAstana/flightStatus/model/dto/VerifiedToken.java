@@ -0,0 +1,27 @@
+package airAstana.flightStatus.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * outcome of a successful JWT verification, enough to authenticate a request without parsing the token again.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VerifiedToken {
+
+    private String tokenId;
+
+    private String subject;
+
+    private Collection<? extends GrantedAuthority> authorities;
+
+    private long expiresAt;
+
+    private long tokenVersion;
+}
@@ -1,26 +1,90 @@
 package airAstana.flightStatus.repository;
 
 import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
+
+/**
+ * the find*View queries select through a constructor expression, so they return detached read-only
+ * flights that are not tracked by the persistence context. they still read every column into full Flight instances,
+ * only the snapshots and dirty checking of managed entities are saved.
+ * the *After queries page by keyset, returning flights ordered after the given arrival and ID.
+ * streamAll reads through a server-side cursor and must be consumed inside a transaction.
+ * the *ForUpdate queries lock the rows in ID order until the end of the transaction, and updateStatus
+ * changes the statuses in a single statement and clears the persistence context.
+ * findAllViewsUpdatedAfter returns the flights created or changed after the given time, findAllViewsUpdatedAt
+ * the flights changed exactly at the given time, such as all flights of one import.
+ */
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, Long> {
 
-    List<Flight> findByOriginIgnoreCaseOrderByArrival(String origin);
+    String FLIGHT_VIEW = "select new airAstana.flightStatus.model.Flight(f.id, f.origin, f.destination, f.departure, f.arrival, f.status, f.updatedAt) from Flight f ";
+
+    String AFTER_CURSOR = "(f.arrival > :arrival or (f.arrival = :arrival and f.id > :id)) ";
+
+    String ORDER_BY_ARRIVAL = "order by f.arrival, f.id";
+
+    int STREAM_FETCH_SIZE = 500;
+
+    @Query(FLIGHT_VIEW + ORDER_BY_ARRIVAL)
+    List<Flight> findAllViewsOrderByArrival();
+
+    @Query(FLIGHT_VIEW + "where f.updatedAt > :since " + ORDER_BY_ARRIVAL)
+    List<Flight> findAllViewsUpdatedAfter(@Param("since") OffsetDateTime since);
+
+    @Query(FLIGHT_VIEW + "where f.updatedAt = :updatedAt " + ORDER_BY_ARRIVAL)
+    List<Flight> findAllViewsUpdatedAt(@Param("updatedAt") OffsetDateTime updatedAt);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select f from Flight f " + ORDER_BY_ARRIVAL)
+    Stream<Flight> streamAllOrderByArrival();
+
+    @Query(FLIGHT_VIEW + "where " + AFTER_CURSOR + ORDER_BY_ARRIVAL)
+    List<Flight> findViewsAfter(@Param("arrival") OffsetDateTime arrival, @Param("id") Long id, Limit limit);
 
-    List<Flight> findByDestinationIgnoreCaseOrderByArrival(String destination);
+    @Query(FLIGHT_VIEW + "where upper(f.origin) = upper(:origin) and " + AFTER_CURSOR + ORDER_BY_ARRIVAL)
+    List<Flight> findViewsByOriginAfter(@Param("origin") String origin,
+                                        @Param("arrival") OffsetDateTime arrival, @Param("id") Long id, Limit limit);
 
-    List<Flight> findAllByOrderByArrival();
+    @Query(FLIGHT_VIEW + "where upper(f.destination) = upper(:destination) and " + AFTER_CURSOR + ORDER_BY_ARRIVAL)
+    List<Flight> findViewsByDestinationAfter(@Param("destination") String destination,
+                                             @Param("arrival") OffsetDateTime arrival, @Param("id") Long id, Limit limit);
 
-    List<Flight> findByOriginIgnoreCaseAndDestinationIgnoreCaseOrderByArrival(String origin, String destination);
+    @Query(FLIGHT_VIEW + "where upper(f.origin) = upper(:origin) and upper(f.destination) = upper(:destination) and " + AFTER_CURSOR + ORDER_BY_ARRIVAL)
+    List<Flight> findViewsByOriginAndDestinationAfter(@Param("origin") String origin, @Param("destination") String destination,
+                                                      @Param("arrival") OffsetDateTime arrival, @Param("id") Long id, Limit limit);
 
-    boolean existsByOriginIgnoreCase(String origin);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from Flight f where f.id in :ids order by f.id")
+    List<Flight> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 
-    boolean existsByDestinationIgnoreCase(String destination);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from Flight f where upper(f.origin) = upper(:origin) and f.departure >= :from and f.departure < :to order by f.id")
+    List<Flight> findAllByOriginAndDepartureForUpdate(@Param("origin") String origin,
+                                                      @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, Limit limit);
 
-    boolean existsByOriginIgnoreCaseAndDestinationIgnoreCase(String origin, String destination);
+    @Modifying(clearAutomatically = true)
+    @Query("update Flight f set f.status = :status, f.updatedAt = :updatedAt where f.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Status status, @Param("updatedAt") OffsetDateTime updatedAt);
 }
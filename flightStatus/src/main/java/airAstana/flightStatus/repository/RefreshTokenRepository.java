@@ -0,0 +1,36 @@
+package airAstana.flightStatus.repository;
+
+import airAstana.flightStatus.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * markUsed marks a token as used only if it was not used yet, so of two concurrent rotations of the same token
+ * exactly one succeeds. deleteFamilyOf revokes every token descending from the same login as the given one,
+ * deleteFamilyOfOwnedBy does so only if the given token belongs to the given user.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    @Modifying
+    @Query("update RefreshToken t set t.used = true where t.digest = :digest and t.used = false")
+    int markUsed(@Param("digest") String digest);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.family = (select r.family from RefreshToken r where r.digest = :digest)")
+    int deleteFamilyOf(@Param("digest") String digest);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.family = "
+            + "(select r.family from RefreshToken r where r.digest = :digest and r.username = :username)")
+    int deleteFamilyOfOwnedBy(@Param("digest") String digest, @Param("username") String username);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
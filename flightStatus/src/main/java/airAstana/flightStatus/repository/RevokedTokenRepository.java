@@ -0,0 +1,23 @@
+package airAstana.flightStatus.repository;
+
+import airAstana.flightStatus.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findAllByExpiresAtAfter(OffsetDateTime now);
+
+    List<RevokedToken> findAllByRevokedAtAfterAndExpiresAtAfter(OffsetDateTime since, OffsetDateTime now);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
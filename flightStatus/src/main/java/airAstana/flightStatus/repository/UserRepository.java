@@ -2,6 +2,8 @@ package airAstana.flightStatus.repository;
 
 import airAstana.flightStatus.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,5 +16,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByUsernameIgnoreCase(String username);
 
+    @Query("select u.tokenVersion from User u where upper(u.username) = upper(:username)")
+    Optional<Long> findTokenVersionByUsernameIgnoreCase(@Param("username") String username);
+
 
 }
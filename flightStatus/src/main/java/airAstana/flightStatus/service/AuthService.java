@@ -2,6 +2,7 @@ package airAstana.flightStatus.service;
 
 import airAstana.flightStatus.model.User;
 import airAstana.flightStatus.model.dto.JwtAuthResponse;
+import airAstana.flightStatus.model.dto.RefreshTokenRequest;
 import airAstana.flightStatus.model.dto.RegisterLoginRequest;
 
 public interface AuthService {
@@ -9,5 +10,9 @@ public interface AuthService {
 
     JwtAuthResponse login(RegisterLoginRequest loginRequest);
 
+    JwtAuthResponse refresh(RefreshTokenRequest refreshRequest);
+
+    void logout(String token, RefreshTokenRequest refreshRequest);
+
     void getAdmin();
 }
@@ -0,0 +1,15 @@
+package airAstana.flightStatus.service;
+
+
+public interface CityDictionaryService {
+
+    int UNKNOWN = -1;
+
+    int intern(String city);
+
+    String canonical(String city);
+
+    int find(String city);
+
+    int size();
+}
@@ -0,0 +1,12 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.model.dto.FlightChanges;
+
+
+public interface FlightChangeLogService {
+
+    FlightChanges getChanges(Long since, Integer limit);
+
+    void onFlightChanged(FlightChangedEvent event);
+}
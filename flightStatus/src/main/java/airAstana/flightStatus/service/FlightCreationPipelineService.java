@@ -0,0 +1,12 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.model.dto.FlightCreationStatus;
+import airAstana.flightStatus.model.dto.FlightDto;
+
+
+public interface FlightCreationPipelineService {
+
+    FlightCreationStatus submit(FlightDto flightDto);
+
+    FlightCreationStatus getStatus(String trackingId);
+}
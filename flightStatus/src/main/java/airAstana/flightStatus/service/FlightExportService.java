@@ -0,0 +1,10 @@
+package airAstana.flightStatus.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+public interface FlightExportService {
+
+    long exportFlights(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,14 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.model.dto.FlightImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+public interface FlightImportService {
+
+    FlightImportResult importFlights(InputStream inputStream) throws IOException;
+
+    FlightImportResult importLocalFile(String fileName) throws IOException;
+}
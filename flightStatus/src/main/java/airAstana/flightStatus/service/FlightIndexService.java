@@ -0,0 +1,24 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.event.FlightRoutesChangedEvent;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.dto.FlightCursor;
+
+import java.util.List;
+
+
+public interface FlightIndexService {
+
+    boolean isReady();
+
+    void load();
+
+    List<Flight> find(String origin, String destination, FlightCursor after, int limit);
+
+    long getVersion(String origin, String destination);
+
+    void onFlightChanged(FlightChangedEvent event);
+
+    void onFlightRoutesChanged(FlightRoutesChangedEvent event);
+}
@@ -2,16 +2,23 @@ package airAstana.flightStatus.service;
 
 import airAstana.flightStatus.model.Flight;
 import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightBulkStatusUpdateDto;
 import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.model.dto.FlightPage;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateResult;
 
 import java.util.List;
 
 
 public interface FlightService {
 
-    List<Flight> getFlights(String origin, String destination);
+    FlightPage getFlights(String origin, String destination, String cursor, Integer limit);
 
     Flight addFlight(FlightDto flightDto);
 
+    List<Flight> addFlights(List<FlightDto> flightDtos);
+
     Flight updateFlightStatus(Long id, Status status);
+
+    List<FlightStatusUpdateResult> updateFlightStatuses(FlightBulkStatusUpdateDto bulkStatusUpdateDto);
 }
@@ -0,0 +1,12 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+
+public interface FlightStatusStreamService {
+
+    SseEmitter subscribe(String origin, String destination);
+
+    void onFlightChanged(FlightChangedEvent event);
+}
@@ -0,0 +1,7 @@
+package airAstana.flightStatus.service;
+
+
+public interface FlightVersionService {
+
+    String getETag(String origin, String destination, String cursor, Integer limit);
+}
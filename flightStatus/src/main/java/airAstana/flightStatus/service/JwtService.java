@@ -1,5 +1,6 @@
 package airAstana.flightStatus.service;
 
+import airAstana.flightStatus.model.dto.VerifiedToken;
 import org.springframework.security.core.userdetails.UserDetails;
 
 public interface JwtService {
@@ -9,4 +10,6 @@ public interface JwtService {
     String generateToken(UserDetails userDetails);
 
     Boolean validateToken(String token, UserDetails userDetails);
+
+    VerifiedToken verifyToken(String token);
 }
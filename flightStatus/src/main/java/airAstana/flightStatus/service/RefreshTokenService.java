@@ -0,0 +1,12 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.model.dto.RefreshTokenRotation;
+
+public interface RefreshTokenService {
+
+    String issue(String username);
+
+    RefreshTokenRotation rotate(String refreshToken);
+
+    void revoke(String refreshToken, String username);
+}
@@ -1,12 +1,20 @@
 package airAstana.flightStatus.service;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
 
 
 public interface TimeZoneService {
     double[] getCoordinates(String city);
 
+    CompletableFuture<double[]> getCoordinatesAsync(String city);
+
     int getUtcOffset(double[] coordinates);
 
+    ZoneId getZoneId(String city);
+
+    CompletableFuture<ZoneId> getZoneIdAsync(String city);
+
     OffsetDateTime getZonedDateTime(OffsetDateTime offsetDateTime, String city);
 }
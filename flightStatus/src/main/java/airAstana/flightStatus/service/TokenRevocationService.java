@@ -0,0 +1,14 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.event.TokenRevokedEvent;
+
+public interface TokenRevocationService {
+
+    void load();
+
+    void revoke(String tokenId, long expiresAt);
+
+    boolean isRevoked(String tokenId);
+
+    void onTokenRevoked(TokenRevokedEvent event);
+}
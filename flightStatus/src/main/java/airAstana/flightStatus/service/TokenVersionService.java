@@ -0,0 +1,13 @@
+package airAstana.flightStatus.service;
+
+import airAstana.flightStatus.event.TokenVersionChangedEvent;
+import airAstana.flightStatus.model.User;
+
+public interface TokenVersionService {
+
+    Long getTokenVersion(String username);
+
+    long incrementTokenVersion(User user);
+
+    void onTokenVersionChanged(TokenVersionChangedEvent event);
+}
@@ -1,20 +1,28 @@
 package airAstana.flightStatus.service.impl;
 
 import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.exception.InvalidRefreshTokenException;
 import airAstana.flightStatus.exception.UsernameTakenException;
 import airAstana.flightStatus.model.EnumRole;
 import airAstana.flightStatus.model.Role;
 import airAstana.flightStatus.model.User;
 import airAstana.flightStatus.model.dto.JwtAuthResponse;
+import airAstana.flightStatus.model.dto.RefreshTokenRequest;
+import airAstana.flightStatus.model.dto.RefreshTokenRotation;
+import airAstana.flightStatus.model.dto.VerifiedToken;
 import airAstana.flightStatus.model.dto.RegisterLoginRequest;
 import airAstana.flightStatus.repository.RoleRepository;
 import airAstana.flightStatus.repository.UserRepository;
 import airAstana.flightStatus.service.AuthService;
 import airAstana.flightStatus.service.JwtService;
+import airAstana.flightStatus.service.RefreshTokenService;
+import airAstana.flightStatus.service.TokenRevocationService;
+import airAstana.flightStatus.service.TokenVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -40,13 +48,19 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final TokenVersionService tokenVersionService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService) {
+    public AuthServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, TokenVersionService tokenVersionService, RefreshTokenService refreshTokenService, TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.tokenVersionService = tokenVersionService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -108,7 +122,7 @@ public class AuthServiceImpl implements AuthService {
      * Logs in a user with the provided login request.
      *
      * @param loginRequest RegisterLoginRequest object containing username and password
-     * @return JwtAuthResponse containing the generated JWT token
+     * @return JwtAuthResponse containing the generated JWT token and a refresh token
      * @throws IllegalArgumentException if the username or password is invalid
      */
     @Override
@@ -118,20 +132,66 @@ public class AuthServiceImpl implements AuthService {
         validateUsername(loginRequest);
         validatePassword(loginRequest);
 
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+        // the principal is the user loaded to check the password, so it is not read again
+        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
                 loginRequest.getUsername(),
                 loginRequest.getPassword())
         );
-
-        User user = userRepository.findByUsernameIgnoreCase(loginRequest.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid username or password"));
+        Object principal = authentication == null ? null : authentication.getPrincipal();
+        if (!(principal instanceof User user)) {
+            throw new IllegalArgumentException("Invalid username or password");
+        }
         String jwt = jwtService.generateToken(user);
 
         JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
         jwtAuthResponse.setToken(jwt);
+        jwtAuthResponse.setRefreshToken(refreshTokenService.issue(user.getUsername()));
         return jwtAuthResponse;
     }
 
+    /**
+     * Issues a new JWT token for a refresh token without checking the password again.
+     * The refresh token is replaced by a new one, which is returned along with the JWT token.
+     *
+     * @param refreshRequest RefreshTokenRequest object containing the refresh token
+     * @return JwtAuthResponse containing the generated JWT token and the next refresh token
+     * @throws InvalidRefreshTokenException if the refresh token is invalid, expired or already used, or its user no longer exists
+     */
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    @Operation(summary = "Refresh Token", description = "Issues a new JWT token and refresh token for a refresh token")
+    public JwtAuthResponse refresh(@Parameter(description = "RefreshTokenRequest object containing the refresh token") RefreshTokenRequest refreshRequest) {
+        RefreshTokenRotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        User user = userRepository.findByUsernameIgnoreCase(rotation.getUsername())
+                .orElseThrow(() -> new InvalidRefreshTokenException("User of the refresh token no longer exists"));
+
+        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
+        jwtAuthResponse.setToken(jwtService.generateToken(user));
+        jwtAuthResponse.setRefreshToken(rotation.getRefreshToken());
+        return jwtAuthResponse;
+    }
+
+    /**
+     * Logs out by revoking the JWT token until it expires, along with the refresh token if one is given.
+     * The refresh token is only revoked if it belongs to the user of the JWT token, tokens of other users are ignored.
+     *
+     * @param token          JWT token of the request
+     * @param refreshRequest RefreshTokenRequest object containing the refresh token, may be null
+     */
+    @Override
+    @Operation(summary = "Logout User", description = "Revokes the JWT token of the request and the given refresh token")
+    public void logout(@Parameter(description = "JWT token of the request") String token,
+                       @Parameter(description = "RefreshTokenRequest object containing the refresh token") RefreshTokenRequest refreshRequest) {
+        VerifiedToken verifiedToken = jwtService.verifyToken(token);
+        if (verifiedToken == null) {
+            return;
+        }
+        tokenRevocationService.revoke(verifiedToken.getTokenId(), verifiedToken.getExpiresAt());
+        if (refreshRequest != null) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken(), verifiedToken.getSubject());
+        }
+    }
+
     /**
      * Retrieves the current authenticated user.
      *
@@ -146,6 +206,7 @@ public class AuthServiceImpl implements AuthService {
 
     /**
      * Grants admin role to the current authenticated user.
+     * Tokens issued before carry the old role, so they are invalidated and the user has to log in again.
      *
      * @throws IllegalStateException if the user role (EnumRole.ADMIN) is not found
      */
@@ -157,8 +218,9 @@ public class AuthServiceImpl implements AuthService {
         Role adminRole = roleRepository.findByName(EnumRole.ADMIN)
                 .orElseThrow(() -> new IllegalStateException("Admin role not found"));
         user.setRole(adminRole);
+        tokenVersionService.incrementTokenVersion(user);
 
-        logger.info("User " + getCurrentUser().getUsername() + " has become an admin");
+        logger.info("User " + user.getUsername() + " has become an admin");
         userRepository.save(user);
     }
 }
@@ -0,0 +1,91 @@
+package airAstana.flightStatus.service.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * fixed-size Bloom filter of strings. adding and testing are lock-free and may run concurrently.
+ * a negative answer is exact, a positive answer is wrong with about the configured false positive rate
+ * as long as no more than the expected number of strings were added.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final int bits;
+
+    private final int hashes;
+
+    private final int expectedInsertions;
+
+    private final AtomicInteger added = new AtomicInteger();
+
+    /**
+     * @param expectedInsertions number of strings the filter is sized for
+     * @param falsePositiveRate  rate of wrong positive answers when the filter holds the expected number of strings
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int expected = Math.max(1, expectedInsertions);
+        this.expectedInsertions = expected;
+        long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+        this.words = new AtomicLongArray((bits + 63) / 64);
+    }
+
+    void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(hash1 + i * hash2, bits);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+        added.incrementAndGet();
+    }
+
+    /**
+     * @param value string to test
+     * @return false if the string was certainly never added, true if it probably was
+     */
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(hash1 + i * hash2, bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if more strings were added than the filter is sized for, so its false positive rate is exceeded
+     */
+    boolean isFull() {
+        return added.get() > expectedInsertions;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of the string, mixed to spread similar strings over all bits.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
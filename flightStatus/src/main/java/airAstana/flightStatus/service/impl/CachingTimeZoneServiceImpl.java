@@ -0,0 +1,264 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.service.TimeZoneService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * caching decorator of the Google based TimeZoneService.
+ * coordinates, UTC offsets and time zones are kept in size-bounded caches with a time to live, invalid cities
+ * are remembered for a shorter time, concurrent lookups of the same city share one API call, and hit and miss
+ * counters are exposed over JMX.
+ * if a cache file is configured, cached values are written to it on shutdown and read back on startup.
+ */
+@Service
+@ManagedResource(objectName = "airAstana.flightStatus:type=TimeZoneCache", description = "time zone lookup cache")
+public class CachingTimeZoneServiceImpl implements TimeZoneService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final String COORDINATES = "coordinates";
+
+    private static final String OFFSET = "offset";
+
+    private static final String ZONE = "zone";
+
+    private final TimeZoneService delegate;
+
+    private final TimeZoneCache<double[]> coordinatesCache;
+
+    private final TimeZoneCache<Integer> offsetCache;
+
+    private final TimeZoneCache<ZoneId> zoneCache;
+
+    private final Path cacheFile;
+
+    @Autowired
+    public CachingTimeZoneServiceImpl(@Qualifier("timeZoneServiceImpl") TimeZoneService delegate,
+                                      @Value("${timezone.cache.max-size:10000}") int maxSize,
+                                      @Value("${timezone.cache.ttl:604800000}") long ttlMillis,
+                                      @Value("${timezone.cache.negative-ttl:600000}") long negativeTtlMillis,
+                                      @Value("${timezone.cache.file:}") String cacheFile) {
+        this(delegate, maxSize, ttlMillis, negativeTtlMillis, cacheFile, Clock.systemUTC());
+    }
+
+    CachingTimeZoneServiceImpl(TimeZoneService delegate, int maxSize, long ttlMillis, long negativeTtlMillis,
+                               String cacheFile, Clock clock) {
+        this.delegate = delegate;
+        this.coordinatesCache = new TimeZoneCache<>(maxSize, ttlMillis, negativeTtlMillis, clock);
+        this.offsetCache = new TimeZoneCache<>(maxSize, ttlMillis, negativeTtlMillis, clock);
+        this.zoneCache = new TimeZoneCache<>(maxSize, ttlMillis, negativeTtlMillis, clock);
+        this.cacheFile = cacheFile == null || cacheFile.isBlank() ? null : Paths.get(cacheFile);
+        load();
+    }
+
+    /**
+     * retrieves coordinates for a given city, asking the API only if they are not cached.
+     *
+     * @param city Name of the city
+     * @return Array containing latitude and longitude coordinates
+     * @throws InvalidCityException If the city provided is invalid or not found
+     */
+    @Override
+    @Operation(summary = "get coordinates for city")
+    public double[] getCoordinates(@Parameter(description = "city name for which coordinates are requested") String city) {
+        return coordinatesCache.get(cityKey(city), key -> delegate.getCoordinates(city)).clone();
+    }
+
+    /**
+     * retrieves coordinates for a given city without blocking, asking the API only if they are not cached.
+     *
+     * @param city Name of the city
+     * @return future of an array containing latitude and longitude coordinates, failing with InvalidCityException
+     * if the city provided is invalid or not found
+     */
+    @Override
+    @Operation(summary = "get coordinates for city asynchronously")
+    public CompletableFuture<double[]> getCoordinatesAsync(@Parameter(description = "city name for which coordinates are requested") String city) {
+        return coordinatesCache.getAsync(cityKey(city), key -> delegate.getCoordinatesAsync(city)).thenApply(double[]::clone);
+    }
+
+    /**
+     * retrieves the UTC offset in hours for given coordinates, asking the API only if it is not cached.
+     *
+     * @param coordinates Array containing latitude and longitude coordinates
+     * @return UTC offset in hours
+     */
+    @Override
+    @Operation(summary = "Get UTC Offset for Coordinates")
+    public int getUtcOffset(@Parameter(description = "array containing latitude and longitude coordinates") double[] coordinates) {
+        return offsetCache.get(coordinates[0] + "," + coordinates[1], key -> delegate.getUtcOffset(coordinates));
+    }
+
+    /**
+     * retrieves the time zone of a given city, asking the API only if it is not cached.
+     *
+     * @param city Name of the city
+     * @return time zone of the city
+     * @throws InvalidCityException If the city provided is invalid or not found
+     */
+    @Override
+    @Operation(summary = "Get Time Zone for City")
+    public ZoneId getZoneId(@Parameter(description = "City name for which time zone is requested") String city) {
+        return zoneCache.get(cityKey(city), key -> delegate.getZoneId(city));
+    }
+
+    /**
+     * retrieves the time zone of a given city without blocking, asking the API only if it is not cached.
+     *
+     * @param city Name of the city
+     * @return future of the time zone of the city, failing with InvalidCityException if the city provided is invalid or not found
+     */
+    @Override
+    @Operation(summary = "Get Time Zone for City asynchronously")
+    public CompletableFuture<ZoneId> getZoneIdAsync(@Parameter(description = "City name for which time zone is requested") String city) {
+        return zoneCache.getAsync(cityKey(city), key -> delegate.getZoneIdAsync(city));
+    }
+
+    /**
+     * Retrieves OffsetDateTime adjusted to the time zone of a given city.
+     *
+     * @param offsetDateTime Original OffsetDateTime
+     * @param city           Name of the city
+     * @return OffsetDateTime adjusted to the city's time zone
+     */
+    @Override
+    @Operation(summary = "Get Zoned Date Time for City")
+    public OffsetDateTime getZonedDateTime(@Parameter(description = "Original OffsetDateTime") OffsetDateTime offsetDateTime,
+                                           @Parameter(description = "City name for which time zone is requested") String city) {
+        return offsetDateTime.toLocalDateTime().atZone(getZoneId(city)).toOffsetDateTime();
+    }
+
+    @ManagedAttribute(description = "number of lookups answered from the cache")
+    public long getHits() {
+        return coordinatesCache.getHits() + offsetCache.getHits() + zoneCache.getHits();
+    }
+
+    @ManagedAttribute(description = "number of lookups passed to the API")
+    public long getMisses() {
+        return coordinatesCache.getMisses() + offsetCache.getMisses() + zoneCache.getMisses();
+    }
+
+    @ManagedAttribute(description = "number of lookups that waited for a lookup of the same key already sent to the API")
+    public long getCoalesced() {
+        return coordinatesCache.getCoalesced() + offsetCache.getCoalesced() + zoneCache.getCoalesced();
+    }
+
+    @ManagedAttribute(description = "number of entries evicted because the cache was full")
+    public long getEvictions() {
+        return coordinatesCache.getEvictions() + offsetCache.getEvictions() + zoneCache.getEvictions();
+    }
+
+    @ManagedAttribute(description = "number of cached entries, including invalid cities")
+    public int getSize() {
+        return coordinatesCache.size() + offsetCache.size() + zoneCache.size();
+    }
+
+    @ManagedOperation(description = "removes all cached entries")
+    public void clear() {
+        coordinatesCache.clear();
+        offsetCache.clear();
+        zoneCache.clear();
+    }
+
+    /**
+     * writes the unexpired cached values to the cache file, replacing it atomically.
+     */
+    @PreDestroy
+    @ManagedOperation(description = "writes the cached entries to the cache file")
+    public void save() {
+        if (cacheFile == null) {
+            return;
+        }
+
+        try {
+            Path absoluteFile = cacheFile.toAbsolutePath();
+            Files.createDirectories(absoluteFile.getParent());
+            Path temporaryFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                write(writer, COORDINATES, coordinatesCache.snapshot(), value -> value[0] + "," + value[1]);
+                write(writer, OFFSET, offsetCache.snapshot(), String::valueOf);
+                write(writer, ZONE, zoneCache.snapshot(), ZoneId::getId);
+            }
+            Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Could not save time zone cache to " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    private static <V> void write(BufferedWriter writer, String type, List<Map.Entry<String, TimeZoneCache.Entry<V>>> entries,
+                                  Function<V, String> format) throws IOException {
+        for (Map.Entry<String, TimeZoneCache.Entry<V>> entry : entries) {
+            writer.write(type + "\t" + entry.getKey() + "\t" + format.apply(entry.getValue().value()) + "\t" + entry.getValue().expiresAt());
+            writer.newLine();
+        }
+    }
+
+    /**
+     * reads cached values back from the cache file, skipping malformed lines.
+     * entries that expired in the meantime are dropped by the cache on their first lookup.
+     */
+    private void load() {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return;
+        }
+
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                try {
+                    long expiresAt = Long.parseLong(columns[3]);
+                    switch (columns[0]) {
+                        case COORDINATES -> {
+                            String[] latLng = columns[2].split(",");
+                            double[] value = {Double.parseDouble(latLng[0]), Double.parseDouble(latLng[1])};
+                            coordinatesCache.put(columns[1], new TimeZoneCache.Entry<>(value, null, expiresAt));
+                        }
+                        case OFFSET -> offsetCache.put(columns[1], new TimeZoneCache.Entry<>(Integer.parseInt(columns[2]), null, expiresAt));
+                        case ZONE -> zoneCache.put(columns[1], new TimeZoneCache.Entry<>(ZoneId.of(columns[2]), null, expiresAt));
+                        default -> throw new IllegalArgumentException("Unknown cache entry type: " + columns[0]);
+                    }
+                    loaded++;
+                } catch (RuntimeException e) {
+                    logger.warning("Skipping invalid time zone cache line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Could not load time zone cache from " + cacheFile + ": " + e.getMessage());
+        }
+        logger.info("Loaded " + loaded + " time zone cache entries from " + cacheFile);
+    }
+
+    private static String cityKey(String city) {
+        return city == null ? "" : OfflineTimeZoneServiceImpl.normalize(city);
+    }
+}
@@ -0,0 +1,82 @@
+package airAstana.flightStatus.service.impl;
+
+import java.time.Clock;
+
+/**
+ * circuit breaker for calls to an external API.
+ * after a number of consecutive failures it opens and rejects calls for a while, then lets a single trial call
+ * through and closes again if that call succeeds.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openDurationMillis;
+
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openedAt;
+
+    private boolean trialCallInFlight;
+
+    CircuitBreaker(int failureThreshold, long openDurationMillis, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * checks if a call may be made. an open breaker lets a single trial call through once the open duration has passed.
+     *
+     * @return true if the call may be made, false if it must fail fast
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openDurationMillis) {
+            state = State.HALF_OPEN;
+            trialCallInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialCallInFlight) {
+                return false;
+            }
+            trialCallInFlight = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * records a successful call, closing the breaker.
+     */
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialCallInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * records a failed call, opening the breaker if the trial call failed or too many calls failed in a row.
+     */
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        trialCallInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
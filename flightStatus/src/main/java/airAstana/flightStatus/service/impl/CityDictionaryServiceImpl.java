@@ -0,0 +1,101 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.service.CityDictionaryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * implementation of CityDictionaryService giving every city a compact int id, so listings and subscriptions
+ * compare ints instead of case-folding strings. every spelling maps to the id of its lower-cased name and to a single
+ * shared instance of that spelling, so the same city held by many flights is one string.
+ * only cities of stored flights are interned, lookups never add cities, so request parameters cannot grow the
+ * dictionary. ids are never evicted, as listings are keyed by them; spellings other than the lower-cased names are
+ * kept up to a maximum, and further spellings still resolve to the id of their city but are not shared.
+ */
+@Service
+public class CityDictionaryServiceImpl implements CityDictionaryService {
+
+    private record City(int id, String name) {
+    }
+
+    private final int maxSpellings;
+
+    private final Map<String, City> cities = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final AtomicInteger spellings = new AtomicInteger();
+
+    public CityDictionaryServiceImpl(@Value("${flights.city-dictionary.max-spellings:10000}") int maxSpellings) {
+        this.maxSpellings = maxSpellings;
+    }
+
+    /**
+     * interns a city, assigning it an id if its name has not been seen in any spelling before.
+     *
+     * @param city name of the city in any case
+     * @return id of the city
+     */
+    @Override
+    public int intern(String city) {
+        return internSpelling(city).id();
+    }
+
+    /**
+     * interns a city and returns the shared instance of its spelling.
+     *
+     * @param city name of the city in any case
+     * @return string equal to the name, shared by every flight with the same spelling while there is room for it
+     */
+    @Override
+    public String canonical(String city) {
+        return internSpelling(city).name();
+    }
+
+    /**
+     * looks up the id of a city without interning it.
+     *
+     * @param city name of the city in any case
+     * @return id of the city, or UNKNOWN if no flight has used it
+     */
+    @Override
+    public int find(String city) {
+        City known = cities.get(city);
+        if (known == null) {
+            known = cities.get(city.toLowerCase(Locale.ROOT));
+        }
+        return known != null ? known.id() : UNKNOWN;
+    }
+
+    /**
+     * @return number of distinct cities
+     */
+    @Override
+    public int size() {
+        return nextId.get();
+    }
+
+    private City internSpelling(String city) {
+        City known = cities.get(city);
+        if (known != null) {
+            return known;
+        }
+        String normalized = city.toLowerCase(Locale.ROOT);
+        City lowerCased = cities.computeIfAbsent(normalized, name -> new City(nextId.getAndIncrement(), name));
+        if (normalized.equals(city)) {
+            return lowerCased;
+        }
+        if (spellings.get() >= maxSpellings) {
+            return new City(lowerCased.id(), city);
+        }
+        return cities.computeIfAbsent(city, spelling -> {
+            spellings.incrementAndGet();
+            return new City(lowerCased.id(), spelling);
+        });
+    }
+}
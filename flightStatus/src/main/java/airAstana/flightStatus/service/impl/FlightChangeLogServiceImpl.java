@@ -0,0 +1,111 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.exception.ChangeSequenceExpiredException;
+import airAstana.flightStatus.model.FlightChangeType;
+import airAstana.flightStatus.model.dto.FlightChange;
+import airAstana.flightStatus.model.dto.FlightChanges;
+import airAstana.flightStatus.service.FlightChangeLogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementation of FlightChangeLogService keeping the most recent flight changes in a bounded ring.
+ * Sequences start from the startup time in microseconds, so they keep increasing across restarts
+ * and clients holding a sequence from a previous run are told to resynchronize.
+ * Bulk changes such as imports publish a FlightRoutesChangedEvent instead and are not recorded.
+ */
+@Service
+public class FlightChangeLogServiceImpl implements FlightChangeLogService {
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final FlightChange[] ring;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final long startSequence;
+
+    private long lastSequence;
+
+    public FlightChangeLogServiceImpl(@Value("${flights.changes.capacity:10000}") int capacity) {
+        this.ring = new FlightChange[capacity];
+        this.startSequence = System.currentTimeMillis() * 1000;
+        this.lastSequence = startSequence;
+    }
+
+    /**
+     * Retrieves a batch of changes after the given sequence.
+     * Without a sequence, returns no changes and the current sequence to start following the feed from.
+     *
+     * @param since Sequence of the last change the client has seen (optional)
+     * @param limit Maximum number of changes in the batch (optional)
+     * @return Batch of changes, oldest first
+     * @throws ChangeSequenceExpiredException if changes after the sequence are no longer retained
+     * @throws IllegalArgumentException       if limit is less than 1
+     */
+    @Override
+    @Operation(summary = "Get Flight Changes", description = "Retrieves a batch of flight changes after the given sequence")
+    public FlightChanges getChanges(@Parameter(description = "Sequence of the last change seen") Long since,
+                                    @Parameter(description = "Maximum number of changes in the batch") Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Invalid limit provided: " + limit);
+        }
+        int batchSize = limit == null ? DEFAULT_BATCH_SIZE : Math.min(limit, MAX_BATCH_SIZE);
+
+        lock.readLock().lock();
+        try {
+            if (since == null) {
+                return new FlightChanges(Collections.emptyList(), lastSequence, false);
+            }
+
+            long oldestSince = Math.max(startSequence, lastSequence - ring.length);
+            if (since < oldestSince || since > lastSequence) {
+                throw new ChangeSequenceExpiredException("Changes after sequence " + since + " are no longer available");
+            }
+
+            long end = Math.min(lastSequence, since + batchSize);
+            List<FlightChange> changes = new ArrayList<>((int) (end - since));
+            for (long sequence = since + 1; sequence <= end; sequence++) {
+                changes.add(ring[slotOf(sequence)]);
+            }
+            return new FlightChanges(changes, end, end < lastSequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a committed flight change to the log.
+     *
+     * @param event Event describing the created or updated flight
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        FlightChangeType type = event.isCreated() ? FlightChangeType.CREATED : FlightChangeType.STATUS_CHANGED;
+
+        lock.writeLock().lock();
+        try {
+            long sequence = ++lastSequence;
+            ring[slotOf(sequence)] = new FlightChange(sequence, type, event.getFlight());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slotOf(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+}
@@ -0,0 +1,301 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.exception.FlightQueueFullException;
+import airAstana.flightStatus.exception.TimeZoneServiceUnavailableException;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightCreationState;
+import airAstana.flightStatus.model.dto.FlightCreationStatus;
+import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.service.FlightCreationPipelineService;
+import airAstana.flightStatus.service.FlightService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of FlightCreationPipelineService creating flights in the background.
+ * Submitted flights are validated and put on a bounded queue; a worker thread takes them off in batches and
+ * creates every batch with FlightService.addFlights, so the time zones of a batch are resolved together and
+ * the flights are inserted through JDBC batches. Flights whose time zones cannot be resolved because the time zone
+ * API is unavailable are retried with an exponential backoff. Finished creations are tracked for a limited time.
+ * <p>
+ * The pipeline is single-node and best-effort: the queue and the statuses live in memory, so a tracking ID is only
+ * known to the node that issued it and queued flights are lost if the node dies. On shutdown new flights are refused
+ * and the worker is given the shutdown timeout to create the flights already queued.
+ */
+@Service
+public class FlightCreationPipelineServiceImpl implements FlightCreationPipelineService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private record PendingFlight(String trackingId, FlightDto flightDto, int attempts, long retryAt) {
+    }
+
+    private record Completion(String trackingId, long completedAt) {
+    }
+
+    private final FlightService flightService;
+
+    private final BlockingQueue<PendingFlight> queue;
+
+    private final int batchSize;
+
+    private final long retentionMillis;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final long shutdownTimeoutMillis;
+
+    private final Clock clock;
+
+    // flights waiting for a retry, ordered by when they are due; only used by the thread processing batches
+    private final Queue<PendingFlight> retries = new PriorityQueue<>(Comparator.comparingLong(PendingFlight::retryAt));
+
+    private volatile boolean stopping;
+
+    private final Map<String, FlightCreationStatus> statuses = new ConcurrentHashMap<>();
+
+    private final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+
+    private final Thread worker;
+
+    @Autowired
+    public FlightCreationPipelineServiceImpl(FlightService flightService,
+                                             @Value("${flights.pipeline.queue-capacity:10000}") int queueCapacity,
+                                             @Value("${flights.pipeline.batch-size:100}") int batchSize,
+                                             @Value("${flights.pipeline.retention:3600000}") long retentionMillis,
+                                             @Value("${flights.pipeline.max-attempts:5}") int maxAttempts,
+                                             @Value("${flights.pipeline.retry-backoff:1000}") long retryBackoffMillis,
+                                             @Value("${flights.pipeline.shutdown-timeout:30000}") long shutdownTimeoutMillis) {
+        this(flightService, queueCapacity, batchSize, retentionMillis, maxAttempts, retryBackoffMillis, shutdownTimeoutMillis,
+                Clock.systemUTC(), true);
+    }
+
+    FlightCreationPipelineServiceImpl(FlightService flightService, int queueCapacity, int batchSize, long retentionMillis,
+                                      int maxAttempts, long retryBackoffMillis, long shutdownTimeoutMillis,
+                                      Clock clock, boolean startWorker) {
+        this.flightService = flightService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.retentionMillis = retentionMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.clock = clock;
+        this.worker = startWorker ? Thread.ofPlatform().name("flight-pipeline").daemon().start(this::run) : null;
+    }
+
+    /**
+     * Validates a flight DTO and queues it for creation.
+     *
+     * @param flightDto Flight DTO containing flight details
+     * @return Status of the queued creation with its tracking ID
+     * @throws IllegalArgumentException if any validation on the flight DTO fails
+     * @throws FlightQueueFullException if the queue is full or the pipeline is shutting down
+     */
+    @Override
+    @Operation(summary = "Submit Flight", description = "Queues a flight for creation in the background")
+    public FlightCreationStatus submit(@Parameter(description = "Flight DTO containing flight details") FlightDto flightDto) {
+        FlightValidator.validateFlight(flightDto);
+        if (stopping) {
+            throw new FlightQueueFullException("Flight creation pipeline is shutting down");
+        }
+
+        FlightCreationStatus status = new FlightCreationStatus(UUID.randomUUID().toString(), FlightCreationState.QUEUED, null, null);
+        PendingFlight pendingFlight = new PendingFlight(status.getTrackingId(), flightDto, 0, 0);
+        statuses.put(status.getTrackingId(), status);
+        if (!queue.offer(pendingFlight)) {
+            statuses.remove(status.getTrackingId());
+            throw new FlightQueueFullException("Flight creation queue is full");
+        }
+        // stop may have begun after the check above; the worker only exits once it sees stopping and an empty queue,
+        // so a flight it has not taken yet is handed back here instead of being lost
+        if (stopping && queue.remove(pendingFlight)) {
+            statuses.remove(status.getTrackingId());
+            throw new FlightQueueFullException("Flight creation pipeline is shutting down");
+        }
+        return status;
+    }
+
+    /**
+     * Retrieves the status of a queued creation.
+     *
+     * @param trackingId Tracking ID returned by submit
+     * @return Status of the creation, or null if the ID is unknown or its status expired
+     */
+    @Override
+    @Operation(summary = "Get Flight Creation Status", description = "Retrieves the status of a flight queued for creation")
+    public FlightCreationStatus getStatus(@Parameter(description = "Tracking ID returned when the flight was queued") String trackingId) {
+        return trackingId == null ? null : statuses.get(trackingId);
+    }
+
+    /**
+     * Refuses new flights and waits up to the shutdown timeout for the worker to create the flights already queued,
+     * including the ones waiting for a retry. Flights still queued after the timeout are lost.
+     */
+    @PreDestroy
+    void stop() {
+        stopping = true;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(Duration.ofMillis(shutdownTimeoutMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+            logger.warning("Flight creation pipeline stopped with " + queue.size() + " queued flights left");
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted() && (!stopping || !queue.isEmpty() || !retries.isEmpty())) {
+            try {
+                List<PendingFlight> batch = nextBatch(1000);
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+                expireCompleted();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.severe("Flight creation pipeline failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Takes up to one batch of queued flights and flights due for a retry and creates them on the calling thread.
+     *
+     * @return Number of flights taken
+     */
+    int drain() {
+        List<PendingFlight> batch;
+        try {
+            batch = nextBatch(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        if (!batch.isEmpty()) {
+            process(batch);
+        }
+        expireCompleted();
+        return batch.size();
+    }
+
+    /**
+     * Takes the flights due for a retry first and fills the batch up from the queue. If there is nothing to take,
+     * waits for a flight to be queued up to the given timeout or until the next retry is due.
+     *
+     * @param timeoutMillis Longest time to wait for a flight, 0 to not wait
+     * @return Batch of at most batchSize flights, empty if there was nothing to take
+     */
+    private List<PendingFlight> nextBatch(long timeoutMillis) throws InterruptedException {
+        List<PendingFlight> batch = new ArrayList<>(batchSize);
+        long now = clock.millis();
+        while (batch.size() < batchSize && !retries.isEmpty() && retries.peek().retryAt() <= now) {
+            batch.add(retries.poll());
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        if (batch.isEmpty() && timeoutMillis > 0) {
+            long waitMillis = retries.isEmpty() ? timeoutMillis : Math.min(timeoutMillis, retries.peek().retryAt() - now);
+            PendingFlight first = queue.poll(Math.max(waitMillis, 0), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Creates a batch of flights in one call. If the time zone API is unavailable, the whole batch is retried later.
+     * If the batch fails otherwise, its flights are created one by one, so a single bad flight only fails its own creation.
+     *
+     * @param batch Queued flights
+     */
+    private void process(List<PendingFlight> batch) {
+        try {
+            List<Flight> flights = flightService.addFlights(batch.stream().map(PendingFlight::flightDto).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), FlightCreationState.CREATED, flights.get(i), null);
+            }
+            return;
+        } catch (TimeZoneServiceUnavailableException e) {
+            logger.warning("Time zone API unavailable for a batch of " + batch.size() + " queued flights, retrying later: " + e.getMessage());
+            for (PendingFlight pendingFlight : batch) {
+                retryLater(pendingFlight, e);
+            }
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                complete(batch.get(0), FlightCreationState.FAILED, null, e.getMessage());
+                return;
+            }
+            logger.warning("Batch of " + batch.size() + " queued flights failed, creating them one by one: " + e.getMessage());
+        }
+
+        for (PendingFlight pendingFlight : batch) {
+            try {
+                complete(pendingFlight, FlightCreationState.CREATED, flightService.addFlight(pendingFlight.flightDto()), null);
+            } catch (TimeZoneServiceUnavailableException e) {
+                retryLater(pendingFlight, e);
+            } catch (RuntimeException e) {
+                complete(pendingFlight, FlightCreationState.FAILED, null, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Schedules another attempt of a flight, doubling the backoff with every attempt.
+     * A flight that used up its attempts fails with the error of the last one.
+     */
+    private void retryLater(PendingFlight pendingFlight, TimeZoneServiceUnavailableException e) {
+        int attempts = pendingFlight.attempts() + 1;
+        if (attempts >= maxAttempts) {
+            complete(pendingFlight, FlightCreationState.FAILED, null, e.getMessage());
+            return;
+        }
+        long backoffMillis = retryBackoffMillis << Math.min(attempts - 1, 20);
+        retries.add(new PendingFlight(pendingFlight.trackingId(), pendingFlight.flightDto(), attempts, clock.millis() + backoffMillis));
+    }
+
+    private void complete(PendingFlight pendingFlight, FlightCreationState state, Flight flight, String error) {
+        statuses.put(pendingFlight.trackingId(), new FlightCreationStatus(pendingFlight.trackingId(), state, flight, error));
+        completions.add(new Completion(pendingFlight.trackingId(), clock.millis()));
+    }
+
+    private void expireCompleted() {
+        long expiredBefore = clock.millis() - retentionMillis;
+        Completion completion;
+        while ((completion = completions.peek()) != null && completion.completedAt() <= expiredBefore) {
+            completions.poll();
+            statuses.remove(completion.trackingId());
+        }
+    }
+}
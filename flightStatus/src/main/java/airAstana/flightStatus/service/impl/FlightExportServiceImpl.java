@@ -0,0 +1,81 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.repository.FlightRepository;
+import airAstana.flightStatus.service.FlightExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of FlightExportService streaming all flights as newline-delimited JSON.
+ */
+@Service
+public class FlightExportServiceImpl implements FlightExportService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private final FlightRepository flightRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter flightWriter;
+
+    public FlightExportServiceImpl(FlightRepository flightRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.flightRepository = flightRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.flightWriter = objectMapper.writerFor(Flight.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every flight sorted by arrival to the output stream, one JSON object per line.
+     * Flights are read through a database cursor and detached once written, so memory use does not depend on the number of flights.
+     *
+     * @param outputStream Stream to write the flights to, left open
+     * @return Number of flights written
+     * @throws IOException if writing to the output stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Operation(summary = "Export Flights", description = "Streams all flights sorted by arrival as newline-delimited JSON")
+    public long exportFlights(@Parameter(description = "Stream to write the flights to") OutputStream outputStream) throws IOException {
+        long count = 0;
+
+        try (Stream<Flight> flights = flightRepository.streamAllOrderByArrival();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Flight> iterator = flights.iterator();
+            while (iterator.hasNext()) {
+                Flight flight = iterator.next();
+                flightWriter.writeValue(generator, flight);
+                generator.writeRaw('\n');
+                entityManager.detach(flight);
+
+                if (++count % FlightRepository.STREAM_FETCH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+
+        logger.info("Exported " + count + " flights");
+        return count;
+    }
+}
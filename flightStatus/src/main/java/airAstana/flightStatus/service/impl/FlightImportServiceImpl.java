@@ -0,0 +1,267 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.event.FlightRoutesChangedEvent;
+import airAstana.flightStatus.exception.FlightImportException;
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.model.dto.FlightImportResult;
+import airAstana.flightStatus.service.FlightImportService;
+import airAstana.flightStatus.service.TimeZoneService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of FlightImportService loading CSV flight schedules through PostgreSQL COPY.
+ * Rows are parsed and validated one at a time and streamed into a temporary staging table,
+ * which is then merged into the flights table in a single statement. The merge only returns the distinct routes
+ * of the inserted flights, and a single FlightRoutesChangedEvent is published for the whole import, so the imported
+ * flights are never held in memory and do not flood the flight change feed.
+ */
+@Service
+public class FlightImportServiceImpl implements FlightImportService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final String HEADER = "origin,destination,departure,arrival,status";
+
+    private static final int MAX_REJECTED_ROWS = 1000;
+
+    private static final int COPY_BUFFER_SIZE = 65536;
+
+    private static final String CREATE_STAGING_TABLE = "CREATE TEMP TABLE flights_import ("
+            + "origin VARCHAR(256) NOT NULL, destination VARCHAR(256) NOT NULL, "
+            + "departure TIMESTAMP WITH TIME ZONE NOT NULL, arrival TIMESTAMP WITH TIME ZONE NOT NULL, "
+            + "status VARCHAR(20) NOT NULL) ON COMMIT DROP";
+
+    private static final String COPY_STAGING_TABLE = "COPY flights_import (origin, destination, departure, arrival, status) FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * Inserts the staged flights that are not stored yet, numbering them from whole blocks of the pooled ID sequence
+     * the way Hibernate does, instead of spending a block of IDs on every row through the column default.
+     * Every inserted flight gets the change time given as parameter, and the number of inserted flights is returned per route.
+     */
+    private static final String MERGE_STAGING_TABLE = "WITH new_flights AS ("
+            + "SELECT DISTINCT ON (i.origin, i.destination, i.departure) i.origin, i.destination, i.departure, i.arrival, i.status "
+            + "FROM flights_import i "
+            + "WHERE NOT EXISTS (SELECT 1 FROM flights f WHERE f.origin = i.origin AND f.destination = i.destination AND f.departure = i.departure)), "
+            + "numbered AS (SELECT n.*, row_number() OVER () AS position FROM new_flights n), "
+            + "ids AS (SELECT b.hi - " + Flight.ID_ALLOCATION_SIZE + " + g AS id, row_number() OVER (ORDER BY b.hi, g) AS position "
+            + "FROM (SELECT nextval('flights_id_seq') AS hi FROM generate_series(1, "
+            + "(SELECT CEIL(COUNT(*) / " + Flight.ID_ALLOCATION_SIZE + ".0)::INT FROM numbered))) b "
+            + "CROSS JOIN generate_series(1, " + Flight.ID_ALLOCATION_SIZE + ") g), "
+            + "inserted AS (INSERT INTO flights (id, origin, destination, departure, arrival, status, updated_at) "
+            + "SELECT ids.id, n.origin, n.destination, n.departure, n.arrival, n.status, ? FROM numbered n JOIN ids USING (position) "
+            + "RETURNING origin, destination) "
+            + "SELECT origin, destination, COUNT(*) AS flights FROM inserted GROUP BY origin, destination";
+
+    private final DataSource dataSource;
+
+    private final TimeZoneService timeZoneService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String importDirectory;
+
+    public FlightImportServiceImpl(DataSource dataSource, TimeZoneService timeZoneService, ApplicationEventPublisher eventPublisher,
+                                   @Value("${flights.import.directory:}") String importDirectory) {
+        this.dataSource = dataSource;
+        this.timeZoneService = timeZoneService;
+        this.eventPublisher = eventPublisher;
+        this.importDirectory = importDirectory;
+    }
+
+    /**
+     * Imports flights from a CSV stream with the columns origin, destination, departure, arrival and status.
+     * Departure and arrival are ISO-8601 date-times whose local time is taken in the origin and destination time zone.
+     *
+     * @param inputStream CSV stream, optionally starting with a header line
+     * @return Import outcome with rejected rows and throughput
+     * @throws IOException           if reading the stream fails
+     * @throws FlightImportException if loading the rows into the database fails
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Import Flights", description = "Imports flights from a CSV stream through PostgreSQL COPY")
+    public FlightImportResult importFlights(@Parameter(description = "CSV stream of flights") InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        FlightImportResult result = new FlightImportResult();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+
+            long staged;
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_STAGING_TABLE, COPY_BUFFER_SIZE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+                 Writer copyWriter = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8))) {
+                staged = stageRows(reader, copyWriter, result);
+            }
+
+            OffsetDateTime updatedAt = Flight.now();
+            List<FlightRoutesChangedEvent.Route> routes = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(MERGE_STAGING_TABLE)) {
+                statement.setObject(1, updatedAt);
+                try (ResultSet inserted = statement.executeQuery()) {
+                    while (inserted.next()) {
+                        routes.add(new FlightRoutesChangedEvent.Route(inserted.getString("origin"), inserted.getString("destination")));
+                        result.setImported(result.getImported() + inserted.getLong("flights"));
+                    }
+                }
+            }
+            if (!routes.isEmpty()) {
+                eventPublisher.publishEvent(new FlightRoutesChangedEvent(updatedAt, routes));
+            }
+            result.setDuplicates(staged - result.getImported());
+        } catch (SQLException e) {
+            throw new FlightImportException("Error importing flights", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+        result.setRowsPerSecond(result.getRows() / seconds);
+
+        logger.info("Imported " + result.getImported() + " of " + result.getRows() + " flights, "
+                + result.getRejected() + " rejected, " + Math.round(result.getRowsPerSecond()) + " rows/s");
+        return result;
+    }
+
+    /**
+     * Imports flights from a CSV file in the configured import directory.
+     *
+     * @param fileName Name of the file relative to the import directory
+     * @return Import outcome with rejected rows and throughput
+     * @throws IOException              if reading the file fails
+     * @throws IllegalArgumentException if no import directory is configured or the file is outside of it
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Import Local File", description = "Imports flights from a CSV file in the import directory")
+    public FlightImportResult importLocalFile(@Parameter(description = "Name of the file in the import directory") String fileName) throws IOException {
+        if (importDirectory.isBlank() || fileName == null) {
+            throw new IllegalArgumentException("Invalid import file provided: " + fileName);
+        }
+
+        Path directory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Invalid import file provided: " + fileName);
+        }
+
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return importFlights(inputStream);
+        }
+    }
+
+    /**
+     * Parses, validates and converts CSV rows, writing valid rows to the staging table in COPY CSV format.
+     *
+     * @param reader     CSV rows
+     * @param copyWriter Writer of the COPY stream
+     * @param result     Import outcome to count rows and rejections in
+     * @return Number of rows written to the staging table
+     * @throws IOException if reading or writing fails
+     */
+    long stageRows(BufferedReader reader, Writer copyWriter, FlightImportResult result) throws IOException {
+        Map<String, ZoneId> zones = new HashMap<>();
+        long staged = 0;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && line.trim().equalsIgnoreCase(HEADER))) {
+                continue;
+            }
+            result.setRows(result.getRows() + 1);
+
+            try {
+                FlightDto flightDto = parseRow(line);
+                FlightValidator.validateFlight(flightDto);
+
+                ZoneId originZone = zones.computeIfAbsent(flightDto.getOrigin().toLowerCase(Locale.ROOT),
+                        city -> timeZoneService.getZoneId(flightDto.getOrigin()));
+                ZoneId destinationZone = zones.computeIfAbsent(flightDto.getDestination().toLowerCase(Locale.ROOT),
+                        city -> timeZoneService.getZoneId(flightDto.getDestination()));
+
+                copyWriter.write(flightDto.getOrigin() + "," + flightDto.getDestination() + ","
+                        + flightDto.getDeparture().toLocalDateTime().atZone(originZone).toOffsetDateTime() + ","
+                        + flightDto.getArrival().toLocalDateTime().atZone(destinationZone).toOffsetDateTime() + ","
+                        + flightDto.getStatus() + "\n");
+                staged++;
+            } catch (IllegalArgumentException | DateTimeParseException | InvalidCityException e) {
+                reject(result, lineNumber, e.getMessage());
+            }
+        }
+        return staged;
+    }
+
+    /**
+     * Parses a CSV row into a flight DTO.
+     *
+     * @param line CSV row
+     * @return Flight DTO with the values of the row
+     * @throws IllegalArgumentException if the row does not have five columns or the status is unknown
+     * @throws DateTimeParseException   if departure or arrival is not an ISO-8601 date-time with offset
+     */
+    private FlightDto parseRow(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 5) {
+            throw new IllegalArgumentException("Expected 5 columns but found " + columns.length);
+        }
+
+        return new FlightDto(
+                columns[0].trim(),
+                columns[1].trim(),
+                OffsetDateTime.parse(columns[2].trim()),
+                OffsetDateTime.parse(columns[3].trim()),
+                Status.valueOf(columns[4].trim().toUpperCase(Locale.ROOT))
+        );
+    }
+
+    private void reject(FlightImportResult result, long lineNumber, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejectedRows().size() < MAX_REJECTED_ROWS) {
+            result.getRejectedRows().add(new FlightImportResult.RejectedRow(lineNumber, reason));
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.event.FlightRoutesChangedEvent;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.dto.FlightCursor;
+import airAstana.flightStatus.repository.FlightRepository;
+import airAstana.flightStatus.service.CityDictionaryService;
+import airAstana.flightStatus.service.FlightIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * in-memory index of flights keyed by the city ids of origin, destination and origin with destination.
+ * every key holds its flights already sorted by arrival, so reads never touch the database.
+ * indexed flights share one instance of every city spelling from the city dictionary.
+ * the flights table is loaded at startup and changes made on this node are applied once they commit. afterwards
+ * the flights changed since the last load are read at most once per refresh interval, so changes made on other
+ * nodes are picked up too. a flight never replaces an indexed copy that was changed later than itself.
+ * every key also holds a version derived only from the ID, status and change time of its flights, so nodes holding
+ * the same flights report the same version, also across restarts.
+ */
+@Service
+public class FlightIndexServiceImpl implements FlightIndexService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    /**
+     * how far before the last load a reload starts reading, so rows of transactions that committed after it
+     * and change times of nodes whose clocks are behind are not missed. rows read twice are harmless.
+     */
+    private static final long RELOAD_OVERLAP_MILLIS = 60_000;
+
+    private final FlightRepository flightRepository;
+
+    private final CityDictionaryService cityDictionaryService;
+
+    private final boolean enabled;
+
+    private final long refreshIntervalMillis;
+
+    private final Clock clock;
+
+    private final Map<Long, ConcurrentNavigableMap<ArrivalKey, Flight>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * exclusive or of the hashes of the flights under each key, updated after the flights themselves,
+     * so a version is never seen before the flights it describes.
+     */
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private volatile long loadedAt;
+
+    /**
+     * held while the table is read. a lock instead of synchronized, as it is held across JDBC calls
+     * and would otherwise pin virtual threads to their carrier.
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @Autowired
+    public FlightIndexServiceImpl(FlightRepository flightRepository,
+                                  CityDictionaryService cityDictionaryService,
+                                  @Value("${flights.index.enabled:true}") boolean enabled,
+                                  @Value("${flights.index.refresh-interval:10000}") long refreshIntervalMillis) {
+        this(flightRepository, cityDictionaryService, enabled, refreshIntervalMillis, Clock.systemUTC());
+    }
+
+    FlightIndexServiceImpl(FlightRepository flightRepository, CityDictionaryService cityDictionaryService,
+                           boolean enabled, long refreshIntervalMillis, Clock clock) {
+        this.flightRepository = flightRepository;
+        this.cityDictionaryService = cityDictionaryService;
+        this.enabled = enabled;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * checks if the index has been loaded and can serve reads.
+     *
+     * @return true if the index is enabled and loaded, false otherwise
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * loads all flights from the database into the index once the application has started.
+     * flights already put by change events are kept if they changed later than the loaded rows.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Flight> flights;
+        reloadLock.lock();
+        try {
+            long now = clock.millis();
+            flights = flightRepository.findAllViewsOrderByArrival();
+            for (Flight flight : flights) {
+                put(flight);
+            }
+            loadedAt = now;
+            ready = true;
+        } finally {
+            reloadLock.unlock();
+        }
+        logger.info("Flight index loaded with " + flights.size() + " flights");
+    }
+
+    /**
+     * retrieves a page of flights from the index based on origin and destination.
+     *
+     * @param origin      origin of the flights (optional)
+     * @param destination destination of the flights (optional)
+     * @param after       cursor after which the page starts
+     * @param limit       maximum number of flights to return
+     * @return unmodifiable list of flights sorted by arrival, empty if none match
+     */
+    @Override
+    public List<Flight> find(String origin, String destination, FlightCursor after, int limit) {
+        refreshIfDue();
+        ConcurrentNavigableMap<ArrivalKey, Flight> flights = routes.get(FlightRouteKeys.keyOf(cityDictionaryService, origin, destination));
+
+        if (flights == null) {
+            return Collections.emptyList();
+        }
+
+        List<Flight> page = new ArrayList<>(Math.min(limit, 64));
+        for (Flight flight : flights.tailMap(new ArrivalKey(after.getArrival(), after.getId()), false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(flight);
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    /**
+     * retrieves the version of the flights indexed under origin and destination, which changes whenever
+     * a flight is added to the listing or changes.
+     *
+     * @param origin      origin of the flights (optional)
+     * @param destination destination of the flights (optional)
+     * @return version of the listing, 0 if it holds no flights
+     */
+    @Override
+    public long getVersion(String origin, String destination) {
+        refreshIfDue();
+        AtomicLong version = versions.get(FlightRouteKeys.keyOf(cityDictionaryService, origin, destination));
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * applies a committed flight change to the index in place. runs before any other listener,
+     * so they see the index holding the change.
+     *
+     * @param event event describing the created or updated flight
+     */
+    @Override
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        put(event.getFlight());
+    }
+
+    /**
+     * reloads the flights of a committed bulk change, which all carry the change time of the event.
+     * runs before any other listener, so they see the index holding the change.
+     *
+     * @param event event describing the changed routes
+     */
+    @Override
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightRoutesChanged(FlightRoutesChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        for (Flight flight : flightRepository.findAllViewsUpdatedAt(event.getUpdatedAt())) {
+            put(flight);
+        }
+    }
+
+    /**
+     * reads the flights changed since the last load if the refresh interval passed. a failed read is logged and
+     * retried after the next interval. while one thread reads, the others keep reading the indexed flights.
+     */
+    private void refreshIfDue() {
+        long now = clock.millis();
+        if (!ready || now - loadedAt < refreshIntervalMillis) {
+            return;
+        }
+        if (!reloadLock.tryLock()) {
+            return;
+        }
+        try {
+            long since = loadedAt;
+            if (now - since < refreshIntervalMillis) {
+                return;
+            }
+            loadedAt = now;
+            for (Flight flight : flightRepository.findAllViewsUpdatedAfter(
+                    OffsetDateTime.ofInstant(Instant.ofEpochMilli(since - RELOAD_OVERLAP_MILLIS), ZoneOffset.UTC))) {
+                put(flight);
+            }
+        } catch (RuntimeException e) {
+            logger.warning("Flight index could not be refreshed: " + e.getMessage());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * puts a copy of a flight holding the shared city spellings under every key it can be looked up by,
+     * unless the flight indexed under the same arrival and ID changed later.
+     * the flight itself is left unchanged, as it may be the payload of an event other listeners still read
+     * or an entity still managed by a persistence context.
+     *
+     * @param flight flight to index
+     */
+    private void put(Flight flight) {
+        ArrivalKey arrivalKey = new ArrivalKey(flight.getArrival(), flight.getId());
+        Flight indexed = new Flight(flight.getId(), cityDictionaryService.canonical(flight.getOrigin()),
+                cityDictionaryService.canonical(flight.getDestination()), flight.getDeparture(), flight.getArrival(),
+                flight.getStatus(), flight.getUpdatedAt());
+
+        for (long key : FlightRouteKeys.keysOf(cityDictionaryService, indexed)) {
+            ConcurrentNavigableMap<ArrivalKey, Flight> flights = routes.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+            while (true) {
+                Flight existing = flights.putIfAbsent(arrivalKey, indexed);
+                if (existing == null) {
+                    changeVersion(key, hash(indexed));
+                    break;
+                }
+                if (changedLater(existing, indexed)) {
+                    break;
+                }
+                if (flights.replace(arrivalKey, existing, indexed)) {
+                    changeVersion(key, hash(existing) ^ hash(indexed));
+                    break;
+                }
+            }
+        }
+    }
+
+    private void changeVersion(long key, long change) {
+        versions.computeIfAbsent(key, k -> new AtomicLong()).accumulateAndGet(change, (version, hash) -> version ^ hash);
+    }
+
+    /**
+     * hashes the ID, status and change time of a flight. a replaced flight is taken out of a version
+     * by applying its hash again.
+     */
+    private static long hash(Flight flight) {
+        long hash = flight.getId();
+        if (flight.getUpdatedAt() != null) {
+            hash = hash * 0x9E3779B97F4A7C15L + flight.getUpdatedAt().toEpochSecond();
+            hash = hash * 0x9E3779B97F4A7C15L + flight.getUpdatedAt().getNano();
+        }
+        hash = hash * 0x9E3779B97F4A7C15L + flight.getStatus().ordinal();
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * checks if a flight changed later than another copy of it. copies without a change time count as changed
+     * at the same time, so the one put last wins.
+     */
+    private static boolean changedLater(Flight flight, Flight other) {
+        return flight.getUpdatedAt() != null && other.getUpdatedAt() != null && flight.getUpdatedAt().isAfter(other.getUpdatedAt());
+    }
+
+    /**
+     * sort key of an indexed flight, ordering by arrival instant and then by ID.
+     */
+    private record ArrivalKey(long epochSecond, int nano, long id) implements Comparable<ArrivalKey> {
+
+        ArrivalKey(OffsetDateTime arrival, Long id) {
+            this(arrival.toEpochSecond(), arrival.getNano(), id);
+        }
+
+        @Override
+        public int compareTo(ArrivalKey other) {
+            int result = Long.compare(epochSecond, other.epochSecond);
+            if (result == 0) {
+                result = Integer.compare(nano, other.nano);
+            }
+            if (result == 0) {
+                result = Long.compare(id, other.id);
+            }
+            return result;
+        }
+    }
+}
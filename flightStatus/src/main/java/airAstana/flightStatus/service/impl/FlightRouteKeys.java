@@ -0,0 +1,81 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.service.CityDictionaryService;
+
+/**
+ * builds the keys a flight listing is looked up by: all flights, origin, destination and origin with destination.
+ * a key packs the dictionary ids of its origin and destination into a long, so cities are compared ignoring case
+ * without building lower-cased strings.
+ */
+final class FlightRouteKeys {
+
+    static final long ALL = 0L;
+
+    /**
+     * key of a listing filtered by a city no flight has used, which never holds any flights.
+     */
+    static final long NONE = -1L;
+
+    private FlightRouteKeys() {
+    }
+
+    /**
+     * builds the key of a listing filtered by origin and/or destination without interning the cities.
+     *
+     * @param cities      dictionary to look the cities up in
+     * @param origin      origin of the flights (optional)
+     * @param destination destination of the flights (optional)
+     * @return key of the listing, or NONE if a city is not in the dictionary
+     */
+    static long keyOf(CityDictionaryService cities, String origin, String destination) {
+        int originId = origin == null ? CityDictionaryService.UNKNOWN : cities.find(origin);
+        int destinationId = destination == null ? CityDictionaryService.UNKNOWN : cities.find(destination);
+        if ((origin != null && originId == CityDictionaryService.UNKNOWN)
+                || (destination != null && destinationId == CityDictionaryService.UNKNOWN)) {
+            return NONE;
+        }
+        return keyOf(originId, destinationId);
+    }
+
+    /**
+     * builds the key of a listing from city ids.
+     *
+     * @param originId      id of the origin, or UNKNOWN for any origin
+     * @param destinationId id of the destination, or UNKNOWN for any destination
+     * @return key of the listing
+     */
+    static long keyOf(int originId, int destinationId) {
+        return ((originId + 1L) << 32) | (destinationId + 1L);
+    }
+
+    /**
+     * builds the keys of every listing that contains the flight, interning its cities.
+     *
+     * @param cities dictionary to intern the cities in
+     * @param flight flight to build the keys for
+     * @return keys of the listings containing the flight
+     */
+    static long[] keysOf(CityDictionaryService cities, Flight flight) {
+        return keysOf(cities, flight.getOrigin(), flight.getDestination());
+    }
+
+    /**
+     * builds the keys of every listing that contains flights of a route, interning its cities.
+     *
+     * @param cities      dictionary to intern the cities in
+     * @param origin      origin of the route
+     * @param destination destination of the route
+     * @return keys of the listings containing flights of the route
+     */
+    static long[] keysOf(CityDictionaryService cities, String origin, String destination) {
+        int originId = cities.intern(origin);
+        int destinationId = cities.intern(destination);
+        return new long[]{
+                ALL,
+                keyOf(originId, CityDictionaryService.UNKNOWN),
+                keyOf(CityDictionaryService.UNKNOWN, destinationId),
+                keyOf(originId, destinationId)
+        };
+    }
+}
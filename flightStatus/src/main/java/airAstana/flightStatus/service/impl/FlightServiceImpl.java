@@ -1,24 +1,43 @@
 package airAstana.flightStatus.service.impl;
 
 import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.event.FlightChangedEvent;
 import airAstana.flightStatus.exception.FlightWithIdNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithDestinationNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginAndDestinationNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginNotFoundException;
 import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightUpdateOutcome;
 import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightBulkStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightCursor;
 import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.model.dto.FlightPage;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateResult;
 import airAstana.flightStatus.repository.FlightRepository;
+import airAstana.flightStatus.service.FlightIndexService;
 import airAstana.flightStatus.service.FlightService;
 import airAstana.flightStatus.service.TimeZoneService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
-import java.util.EnumSet;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
 /**
@@ -29,132 +48,123 @@ public class FlightServiceImpl implements FlightService {
 
     private static final Logger logger = LoggerManager.getLogger();
 
-    private static final String ORIGIN_DESTINATION_PATTERN = "^[a-zA-Z]+$";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int MAX_BATCH_SIZE = 5000;
 
     private final FlightRepository flightRepository;
 
     private final TimeZoneService timeZoneService;
 
-    public FlightServiceImpl(FlightRepository flightRepository, TimeZoneService timeZoneService) {
-        this.flightRepository = flightRepository;
-        this.timeZoneService = timeZoneService;
-    }
+    private final FlightIndexService flightIndexService;
 
-    /**
-     * Validates the origin string against a regex pattern.
-     *
-     * @param origin Origin to validate
-     * @throws IllegalArgumentException if origin is null or does not match the expected pattern
-     */
-    private void validateOrigin(String origin) {
-        if (origin == null || !origin.matches(ORIGIN_DESTINATION_PATTERN)) {
-            throw new IllegalArgumentException("Invalid origin provided: " + origin);
-        }
-    }
+    private final ApplicationEventPublisher eventPublisher;
 
-    /**
-     * Validates the destination string against a regex pattern.
-     *
-     * @param destination Destination to validate
-     * @throws IllegalArgumentException if destination is null or does not match the expected pattern
-     */
-    private void validateDestination(String destination) {
-        if (destination == null || !destination.matches(ORIGIN_DESTINATION_PATTERN)) {
-            throw new IllegalArgumentException("Invalid destination provided: " + destination);
-        }
+    public FlightServiceImpl(FlightRepository flightRepository, TimeZoneService timeZoneService,
+                             FlightIndexService flightIndexService, ApplicationEventPublisher eventPublisher) {
+        this.flightRepository = flightRepository;
+        this.timeZoneService = timeZoneService;
+        this.flightIndexService = flightIndexService;
+        this.eventPublisher = eventPublisher;
     }
-
     /**
-     * Validates the status against a predefined set of values.
+     * Resolves the requested page size, capping it at the maximum page size.
      *
-     * @param status Status to validate
-     * @throws IllegalArgumentException if status is null or not one of INTIME, DELAYED, or CANCELLED
+     * @param limit Requested page size (optional)
+     * @return Page size to use
+     * @throws IllegalArgumentException if limit is less than 1
      */
-    private void validateStatus(Status status) {
-        if (status == null || !EnumSet.of(Status.INTIME, Status.DELAYED, Status.CANCELLED).contains(status)) {
-            throw new IllegalArgumentException("Invalid status provided: " + status);
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
         }
-    }
-
-    /**
-     * Validates the departure and arrival date-time in the flight DTO.
-     *
-     * @param flightDto Flight DTO containing departure and arrival date-time
-     * @throws IllegalArgumentException if departure or arrival date-time is null
-     */
-    private void validateDepartureAndArrival(FlightDto flightDto) {
-        OffsetDateTime departure = flightDto.getDeparture();
-        OffsetDateTime arrival = flightDto.getArrival();
-
-        if (departure == null || arrival == null) {
-            throw new IllegalArgumentException("Invalid date and time provided: " + departure + ", " + arrival);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid limit provided: " + limit);
         }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 
     /**
-     * Validates the entire flight DTO object.
-     *
-     * @param flightDto Flight DTO to validate
-     */
-    @Transactional
-    private void validateFlight(FlightDto flightDto) {
-        validateStatus(flightDto.getStatus());
-        validateOrigin(flightDto.getOrigin());
-        validateDestination(flightDto.getDestination());
-        validateDepartureAndArrival(flightDto);
-    }
-
-    /**
-     * Retrieves flights based on origin and destination.
+     * Retrieves a page of flights based on origin and destination.
      *
      * @param origin      Origin of the flights (optional)
      * @param destination Destination of the flights (optional)
-     * @return List of flights matching the origin and destination criteria
+     * @param cursor      Cursor returned with the previous page (optional)
+     * @param limit       Maximum number of flights in the page (optional)
+     * @return Page of flights matching the origin and destination criteria with the cursor of the next page
      * @throws FlightsWithOriginNotFoundException               if flights with the specified origin are not found
      * @throws FlightsWithDestinationNotFoundException          if flights with the specified destination are not found
      * @throws FlightsWithOriginAndDestinationNotFoundException if flights with the specified origin and destination are not found
+     * @throws IllegalArgumentException                         if origin, destination, cursor or limit is invalid
      */
     @Override
     @Transactional(readOnly = true)
-    @Operation(summary = "Get Flights", description = "Retrieves flights based on origin and destination")
-    public List<Flight> getFlights(@Parameter(description = "Origin of the flights") String origin,
-                                   @Parameter(description = "Destination of the flights") String destination) {
-        if (origin == null && destination == null) {
-            return flightRepository.findAllByOrderByArrival();
+    @Operation(summary = "Get Flights", description = "Retrieves a page of flights based on origin and destination")
+    public FlightPage getFlights(@Parameter(description = "Origin of the flights") String origin,
+                                 @Parameter(description = "Destination of the flights") String destination,
+                                 @Parameter(description = "Cursor returned with the previous page") String cursor,
+                                 @Parameter(description = "Maximum number of flights in the page") Integer limit) {
+        if (origin != null) {
+            FlightValidator.validateOrigin(origin);
+        }
+        if (destination != null) {
+            FlightValidator.validateDestination(destination);
         }
 
-        if (origin != null && destination != null) {
-            validateOrigin(origin);
-            validateDestination(destination);
+        int pageSize = resolvePageSize(limit);
+        FlightCursor after = cursor == null ? FlightCursor.FIRST : FlightCursor.decode(cursor);
 
-            if (!flightRepository.existsByOriginIgnoreCaseAndDestinationIgnoreCase(origin, destination)) {
+        // one extra flight tells whether there is a next page
+        List<Flight> flights = flightIndexService.isReady()
+                ? flightIndexService.find(origin, destination, after, pageSize + 1)
+                : findFlights(origin, destination, after, pageSize + 1);
+
+        if (flights.isEmpty() && cursor == null) {
+            if (origin != null && destination != null) {
                 throw new FlightsWithOriginAndDestinationNotFoundException("Flights with specified origin and destination not found: " + origin + ", " + destination);
             }
-
-            return flightRepository.findByOriginIgnoreCaseAndDestinationIgnoreCaseOrderByArrival(origin, destination);
-        }
-
-        if (origin != null) {
-            validateOrigin(origin);
-
-            if (!flightRepository.existsByOriginIgnoreCase(origin)) {
+            if (origin != null) {
                 throw new FlightsWithOriginNotFoundException("Flights with specified origin not found: " + origin);
             }
+            if (destination != null) {
+                throw new FlightsWithDestinationNotFoundException("Flights with specified destination not found: " + destination);
+            }
+        }
 
-            return flightRepository.findByOriginIgnoreCaseOrderByArrival(origin);
+        if (flights.size() <= pageSize) {
+            return new FlightPage(flights, null);
         }
 
-        validateDestination(destination);
+        List<Flight> page = flights.subList(0, pageSize);
+        return new FlightPage(page, FlightCursor.after(page.get(pageSize - 1)).encode());
+    }
 
-        if (!flightRepository.existsByDestinationIgnoreCase(destination)) {
-            throw new FlightsWithDestinationNotFoundException("Flights with specified destination not found: " + destination);
+    /**
+     * Retrieves flights based on origin and destination from the database in a single query.
+     *
+     * @param origin      Origin of the flights (optional)
+     * @param destination Destination of the flights (optional)
+     * @param after       Cursor after which the flights start
+     * @param limit       Maximum number of flights to retrieve
+     * @return List of detached flights matching the origin and destination criteria, empty if none match
+     */
+    private List<Flight> findFlights(String origin, String destination, FlightCursor after, int limit) {
+        if (origin != null && destination != null) {
+            return flightRepository.findViewsByOriginAndDestinationAfter(origin, destination, after.getArrival(), after.getId(), Limit.of(limit));
         }
-
-        return flightRepository.findByDestinationIgnoreCaseOrderByArrival(destination);
+        if (origin != null) {
+            return flightRepository.findViewsByOriginAfter(origin, after.getArrival(), after.getId(), Limit.of(limit));
+        }
+        if (destination != null) {
+            return flightRepository.findViewsByDestinationAfter(destination, after.getArrival(), after.getId(), Limit.of(limit));
+        }
+        return flightRepository.findViewsAfter(after.getArrival(), after.getId(), Limit.of(limit));
     }
 
     /**
-     * Adds a new flight based on the provided flight DTO.
+     * Adds a new flight based on the provided flight DTO, resolving the time zones of origin and destination concurrently.
      *
      * @param flightDto Flight DTO containing flight details
      * @return Created flight entity
@@ -164,19 +174,78 @@ public class FlightServiceImpl implements FlightService {
     @Transactional
     @Operation(summary = "Add Flight", description = "Adds a new flight based on the provided flight DTO")
     public Flight addFlight(@Parameter(description = "Flight DTO containing flight details") FlightDto flightDto) {
-        validateFlight(flightDto);
+        FlightValidator.validateFlight(flightDto);
 
         Flight flight = new Flight();
         flight.setOrigin(flightDto.getOrigin());
         flight.setDestination(flightDto.getDestination());
 
-        flight.setDeparture(timeZoneService.getZonedDateTime(flightDto.getDeparture(), flightDto.getOrigin()));
-        flight.setArrival(timeZoneService.getZonedDateTime(flightDto.getArrival(), flightDto.getDestination()));
+        CompletableFuture<ZoneId> originZone = timeZoneService.getZoneIdAsync(flightDto.getOrigin());
+        CompletableFuture<ZoneId> destinationZone = timeZoneService.getZoneIdAsync(flightDto.getDestination());
+        flight.setDeparture(flightDto.getDeparture().toLocalDateTime().atZone(Futures.join(originZone)).toOffsetDateTime());
+        flight.setArrival(flightDto.getArrival().toLocalDateTime().atZone(Futures.join(destinationZone)).toOffsetDateTime());
 
         flight.setStatus(flightDto.getStatus());
 
+        Flight savedFlight = flightRepository.save(flight);
+        eventPublisher.publishEvent(new FlightChangedEvent(savedFlight, null));
+
         logger.info("A new flight has been created");
-        return flightRepository.save(flight);
+        return savedFlight;
+    }
+
+    /**
+     * Adds a batch of new flights based on the provided flight DTOs.
+     * All DTOs are validated before any flight is created, the time zones of all distinct cities are resolved once
+     * and concurrently, and the flights are inserted through JDBC batches.
+     *
+     * @param flightDtos Flight DTOs containing flight details
+     * @return Created flight entities in the order of the DTOs
+     * @throws IllegalArgumentException if the batch is empty or too large, or any validation on a flight DTO fails
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Add Flights", description = "Adds a batch of new flights based on the provided flight DTOs")
+    public List<Flight> addFlights(@Parameter(description = "Flight DTOs containing flight details") List<FlightDto> flightDtos) {
+        if (flightDtos == null || flightDtos.isEmpty() || flightDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Invalid number of flights provided: " + (flightDtos == null ? 0 : flightDtos.size()));
+        }
+
+        for (int i = 0; i < flightDtos.size(); i++) {
+            try {
+                FlightValidator.validateFlight(flightDtos.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid flight at index " + i + ": " + e.getMessage());
+            }
+        }
+
+        Map<String, CompletableFuture<ZoneId>> zones = new HashMap<>();
+        for (FlightDto flightDto : flightDtos) {
+            zones.computeIfAbsent(flightDto.getOrigin().toLowerCase(Locale.ROOT), city -> timeZoneService.getZoneIdAsync(flightDto.getOrigin()));
+            zones.computeIfAbsent(flightDto.getDestination().toLowerCase(Locale.ROOT), city -> timeZoneService.getZoneIdAsync(flightDto.getDestination()));
+        }
+
+        List<Flight> flights = new ArrayList<>(flightDtos.size());
+        for (FlightDto flightDto : flightDtos) {
+            ZoneId originZone = Futures.join(zones.get(flightDto.getOrigin().toLowerCase(Locale.ROOT)));
+            ZoneId destinationZone = Futures.join(zones.get(flightDto.getDestination().toLowerCase(Locale.ROOT)));
+
+            Flight flight = new Flight();
+            flight.setOrigin(flightDto.getOrigin());
+            flight.setDestination(flightDto.getDestination());
+            flight.setDeparture(flightDto.getDeparture().toLocalDateTime().atZone(originZone).toOffsetDateTime());
+            flight.setArrival(flightDto.getArrival().toLocalDateTime().atZone(destinationZone).toOffsetDateTime());
+            flight.setStatus(flightDto.getStatus());
+            flights.add(flight);
+        }
+
+        List<Flight> savedFlights = flightRepository.saveAll(flights);
+        for (Flight savedFlight : savedFlights) {
+            eventPublisher.publishEvent(new FlightChangedEvent(savedFlight, null));
+        }
+
+        logger.info(savedFlights.size() + " new flights have been created");
+        return savedFlights;
     }
 
     /**
@@ -193,13 +262,138 @@ public class FlightServiceImpl implements FlightService {
     @Operation(summary = "Update Flight Status", description = "Updates the status of a flight identified by its ID")
     public Flight updateFlightStatus(@Parameter(description = "ID of the flight to update") Long id,
                                      @Parameter(description = "New status to set for the flight") Status status) {
-        validateStatus(status);
+        FlightValidator.validateStatus(status);
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new FlightWithIdNotFoundException("Flight with specified ID not found: " + id));
 
+        Status previousStatus = flight.getStatus();
         flight.setStatus(status);
+        flight.setUpdatedAt(Flight.now());
+
+        Flight savedFlight = flightRepository.save(flight);
+        eventPublisher.publishEvent(new FlightChangedEvent(savedFlight, previousStatus));
 
         logger.info("Flight status with ID " + flight.getId() + " has been changed to " + status);
-        return flightRepository.save(flight);
+        return savedFlight;
+    }
+
+    /**
+     * Updates the statuses of many flights in one transaction, given either as a list of flight IDs with
+     * their new statuses or as an origin and departure window with a single new status.
+     * The flights are locked while they are read, and every distinct new status is applied with a single UPDATE.
+     *
+     * @param bulkStatusUpdateDto Flights to update and their new statuses
+     * @return Outcome for every requested flight, in request order
+     * @throws IllegalArgumentException if both or neither of the list and the filter are given, or any of them is invalid
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Update Flight Statuses", description = "Updates the statuses of many flights in one transaction")
+    public List<FlightStatusUpdateResult> updateFlightStatuses(@Parameter(description = "Flights to update and their new statuses") FlightBulkStatusUpdateDto bulkStatusUpdateDto) {
+        if (bulkStatusUpdateDto == null) {
+            throw new IllegalArgumentException("Invalid bulk status update provided: null");
+        }
+
+        Map<Long, Status> requestedStatuses = new LinkedHashMap<>();
+        List<Flight> flights = hasStatusUpdates(bulkStatusUpdateDto)
+                ? lockRequestedFlights(bulkStatusUpdateDto, requestedStatuses)
+                : lockFilteredFlights(bulkStatusUpdateDto, requestedStatuses);
+        Map<Long, Flight> flightsById = flights.stream().collect(Collectors.toMap(Flight::getId, Function.identity()));
+
+        List<FlightStatusUpdateResult> results = new ArrayList<>(requestedStatuses.size());
+        Map<Status, List<Long>> idsByStatus = new EnumMap<>(Status.class);
+        for (Map.Entry<Long, Status> requested : requestedStatuses.entrySet()) {
+            Flight flight = flightsById.get(requested.getKey());
+            if (flight == null) {
+                results.add(new FlightStatusUpdateResult(requested.getKey(), FlightUpdateOutcome.NOT_FOUND, null, null));
+            } else if (flight.getStatus() == requested.getValue()) {
+                results.add(new FlightStatusUpdateResult(flight.getId(), FlightUpdateOutcome.UNCHANGED, flight.getStatus(), flight.getStatus()));
+            } else {
+                results.add(new FlightStatusUpdateResult(flight.getId(), FlightUpdateOutcome.UPDATED, flight.getStatus(), requested.getValue()));
+                idsByStatus.computeIfAbsent(requested.getValue(), status -> new ArrayList<>()).add(flight.getId());
+            }
+        }
+
+        OffsetDateTime updatedAt = Flight.now();
+        idsByStatus.forEach((status, ids) -> flightRepository.updateStatus(ids, status, updatedAt));
+
+        for (FlightStatusUpdateResult result : results) {
+            if (result.getOutcome() == FlightUpdateOutcome.UPDATED) {
+                Flight flight = flightsById.get(result.getId());
+                flight.setStatus(result.getStatus());
+                flight.setUpdatedAt(updatedAt);
+                eventPublisher.publishEvent(new FlightChangedEvent(flight, result.getPreviousStatus()));
+            }
+        }
+
+        logger.info(idsByStatus.values().stream().mapToInt(List::size).sum() + " of " + results.size() + " flight statuses have been changed");
+        return results;
+    }
+
+    private static boolean hasStatusUpdates(FlightBulkStatusUpdateDto bulkStatusUpdateDto) {
+        boolean hasUpdates = bulkStatusUpdateDto.getUpdates() != null && !bulkStatusUpdateDto.getUpdates().isEmpty();
+        boolean hasFilter = bulkStatusUpdateDto.getOrigin() != null || bulkStatusUpdateDto.getDepartureFrom() != null
+                || bulkStatusUpdateDto.getDepartureTo() != null;
+
+        if (hasUpdates == hasFilter) {
+            throw new IllegalArgumentException("Either a list of updates or an origin and departure window must be provided");
+        }
+        return hasUpdates;
+    }
+
+    /**
+     * Validates a list of status updates and locks the listed flights.
+     * If a flight is listed more than once, its last status is used.
+     *
+     * @param bulkStatusUpdateDto Bulk update holding the list of status updates
+     * @param requestedStatuses   Map to put the new status of every listed flight ID in
+     * @return Listed flights that exist
+     * @throws IllegalArgumentException if the list is too long or any update is invalid
+     */
+    private List<Flight> lockRequestedFlights(FlightBulkStatusUpdateDto bulkStatusUpdateDto, Map<Long, Status> requestedStatuses) {
+        if (bulkStatusUpdateDto.getStatus() != null) {
+            throw new IllegalArgumentException("Status must be given per flight when a list of updates is provided");
+        }
+        if (bulkStatusUpdateDto.getUpdates().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Invalid batch size provided: " + bulkStatusUpdateDto.getUpdates().size());
+        }
+
+        for (FlightStatusUpdateDto update : bulkStatusUpdateDto.getUpdates()) {
+            if (update == null || update.getId() == null) {
+                throw new IllegalArgumentException("Invalid flight ID provided: null");
+            }
+            FlightValidator.validateStatus(update.getStatus());
+            requestedStatuses.put(update.getId(), update.getStatus());
+        }
+
+        return flightRepository.findAllByIdForUpdate(requestedStatuses.keySet());
+    }
+
+    /**
+     * Validates an origin and departure window filter and locks the matching flights.
+     *
+     * @param bulkStatusUpdateDto Bulk update holding the filter and the new status
+     * @param requestedStatuses   Map to put the new status of every matching flight ID in
+     * @return Flights matching the filter
+     * @throws IllegalArgumentException if the filter or status is invalid, or too many flights match
+     */
+    private List<Flight> lockFilteredFlights(FlightBulkStatusUpdateDto bulkStatusUpdateDto, Map<Long, Status> requestedStatuses) {
+        OffsetDateTime from = bulkStatusUpdateDto.getDepartureFrom();
+        OffsetDateTime to = bulkStatusUpdateDto.getDepartureTo();
+
+        FlightValidator.validateOrigin(bulkStatusUpdateDto.getOrigin());
+        FlightValidator.validateStatus(bulkStatusUpdateDto.getStatus());
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid departure window provided: " + from + ", " + to);
+        }
+
+        List<Flight> flights = flightRepository.findAllByOriginAndDepartureForUpdate(
+                bulkStatusUpdateDto.getOrigin(), from, to, Limit.of(MAX_BATCH_SIZE + 1));
+        if (flights.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("More than " + MAX_BATCH_SIZE + " flights match the filter");
+        }
+
+        flights.forEach(flight -> requestedStatuses.put(flight.getId(), bulkStatusUpdateDto.getStatus()));
+        return flights;
     }
 }
@@ -0,0 +1,219 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.service.CityDictionaryService;
+import airAstana.flightStatus.service.FlightStatusStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of FlightStatusStreamService pushing committed status changes to Server-Sent Events subscribers.
+ * Every subscriber has a bounded buffer drained by its own virtual thread, so idle connections cost a parked
+ * virtual thread and a slow subscriber is dropped once its buffer is full instead of holding back the others.
+ */
+@Service
+public class FlightStatusStreamServiceImpl implements FlightStatusStreamService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    static final String STATUS_EVENT = "status";
+
+    private final CityDictionaryService cityDictionaryService;
+
+    private final int bufferSize;
+
+    private final long timeout;
+
+    private final long heartbeatInterval;
+
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("flight-stream-", 0).factory();
+
+    /**
+     * completes dropped subscribers. platform threads, as completing waits on the emitter monitor held by a send
+     * in progress, and a virtual thread waiting on a monitor pins its carrier.
+     */
+    private final ThreadFactory completerFactory = Thread.ofPlatform().daemon().name("flight-stream-completer-", 0).factory();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public FlightStatusStreamServiceImpl(CityDictionaryService cityDictionaryService,
+                                         @Value("${flights.stream.buffer-size:32}") int bufferSize,
+                                         @Value("${flights.stream.timeout:1800000}") long timeout,
+                                         @Value("${flights.stream.heartbeat-interval:15000}") long heartbeatInterval) {
+        this.cityDictionaryService = cityDictionaryService;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Subscribes to status changes of flights, optionally filtered by origin and/or destination.
+     *
+     * @param origin      Origin of the flights (optional)
+     * @param destination Destination of the flights (optional)
+     * @return Emitter sending a status event for every matching change
+     * @throws IllegalArgumentException if origin or destination is invalid
+     */
+    @Override
+    @Operation(summary = "Subscribe to Flight Status Changes", description = "Streams status changes of flights matching origin and destination")
+    public SseEmitter subscribe(@Parameter(description = "Origin of the flights") String origin,
+                                @Parameter(description = "Destination of the flights") String destination) {
+        if (origin != null) {
+            FlightValidator.validateOrigin(origin);
+        }
+        if (destination != null) {
+            FlightValidator.validateDestination(destination);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout);
+        register(emitter, origin, destination);
+        return emitter;
+    }
+
+    /**
+     * Registers an emitter as a subscriber and starts draining its buffer. The cities are only looked up,
+     * so subscriptions never add to the city dictionary.
+     *
+     * @param emitter     Emitter to send the events to
+     * @param origin      Origin of the flights (optional)
+     * @param destination Destination of the flights (optional)
+     */
+    void register(SseEmitter emitter, String origin, String destination) {
+        Subscriber subscriber = new Subscriber(emitter, origin, destination, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscriber.drainer = threadFactory.newThread(() -> drain(subscriber));
+        subscriber.drainer.start();
+    }
+
+    /**
+     * Fans a committed status change out to every matching subscriber, dropping subscribers whose buffer is full.
+     * A dropped subscriber is completed from here as well, as its drainer may be stuck in a write that ignores
+     * the interrupt.
+     *
+     * @param event Event describing the updated flight
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (event.isCreated()) {
+            return;
+        }
+
+        Flight flight = event.getFlight();
+        int originId = cityDictionaryService.intern(flight.getOrigin());
+        int destinationId = cityDictionaryService.intern(flight.getDestination());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(cityDictionaryService, originId, destinationId) && !subscriber.buffer.offer(flight)) {
+                logger.info("Dropping a slow flight status subscriber");
+                remove(subscriber);
+                // completing waits for a send in progress, so it must not run on the publishing thread
+                completerFactory.newThread(subscriber.emitter::complete).start();
+            }
+        }
+    }
+
+    /**
+     * Sends buffered flights to a subscriber until it goes away, with a heartbeat comment whenever it is idle.
+     * The emitter is completed here once the subscriber is removed. A write stuck on a client that stopped
+     * reading is not interruptible, so a dropped subscriber is also completed by a separate thread, which
+     * finishes the response as soon as the write returns or fails on the container's write timeout.
+     *
+     * @param subscriber Subscriber to drain the buffer of
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscribers.contains(subscriber)) {
+                Flight flight = subscriber.buffer.poll(heartbeatInterval, TimeUnit.MILLISECONDS);
+                if (flight == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(STATUS_EVENT)
+                            .id(String.valueOf(flight.getId()))
+                            .data(flight, MediaType.APPLICATION_JSON));
+                }
+            }
+            subscriber.emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+        } catch (InterruptedException e) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber) && subscriber.drainer != null) {
+            subscriber.drainer.interrupt();
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * a connected client with its filter and buffer of flights waiting to be sent.
+     * a filtered city no flight has used yet has no id, and is looked up again until the first flight interns it.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final String origin;
+
+        private final String destination;
+
+        private volatile int originId = CityDictionaryService.UNKNOWN;
+
+        private volatile int destinationId = CityDictionaryService.UNKNOWN;
+
+        private final BlockingQueue<Flight> buffer;
+
+        private volatile Thread drainer;
+
+        private Subscriber(SseEmitter emitter, String origin, String destination, BlockingQueue<Flight> buffer) {
+            this.emitter = emitter;
+            this.origin = origin;
+            this.destination = destination;
+            this.buffer = buffer;
+        }
+
+        /**
+         * @param cities              dictionary the flight cities were interned in
+         * @param flightOriginId      city id of the flight origin
+         * @param flightDestinationId city id of the flight destination
+         * @return true if the subscriber has no filter on a city or the city ids are the same
+         */
+        private boolean matches(CityDictionaryService cities, int flightOriginId, int flightDestinationId) {
+            if (origin != null && originId == CityDictionaryService.UNKNOWN) {
+                originId = cities.find(origin);
+            }
+            if (destination != null && destinationId == CityDictionaryService.UNKNOWN) {
+                destinationId = cities.find(destination);
+            }
+            return (origin == null || originId == flightOriginId)
+                    && (destination == null || destinationId == flightDestinationId);
+        }
+    }
+}
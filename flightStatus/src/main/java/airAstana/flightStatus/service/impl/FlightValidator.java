@@ -0,0 +1,98 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightDto;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+
+/**
+ * Validation rules shared by every way of creating or looking up flights.
+ */
+final class FlightValidator {
+
+    private FlightValidator() {
+    }
+
+    /**
+     * Validates that the origin is non-empty and consists only of ASCII letters.
+     *
+     * @param origin Origin to validate
+     * @throws IllegalArgumentException if origin is null or not a valid city name
+     */
+    static void validateOrigin(String origin) {
+        if (!isValidCityName(origin)) {
+            throw new IllegalArgumentException("Invalid origin provided: " + origin);
+        }
+    }
+
+    /**
+     * Validates that the destination is non-empty and consists only of ASCII letters.
+     *
+     * @param destination Destination to validate
+     * @throws IllegalArgumentException if destination is null or not a valid city name
+     */
+    static void validateDestination(String destination) {
+        if (!isValidCityName(destination)) {
+            throw new IllegalArgumentException("Invalid destination provided: " + destination);
+        }
+    }
+
+    /**
+     * Validates the status against a predefined set of values.
+     *
+     * @param status Status to validate
+     * @throws IllegalArgumentException if status is null or not one of INTIME, DELAYED, or CANCELLED
+     */
+    static void validateStatus(Status status) {
+        if (status == null || !EnumSet.of(Status.INTIME, Status.DELAYED, Status.CANCELLED).contains(status)) {
+            throw new IllegalArgumentException("Invalid status provided: " + status);
+        }
+    }
+
+    /**
+     * Validates the departure and arrival date-time in the flight DTO.
+     *
+     * @param flightDto Flight DTO containing departure and arrival date-time
+     * @throws IllegalArgumentException if departure or arrival date-time is null
+     */
+    static void validateDepartureAndArrival(FlightDto flightDto) {
+        OffsetDateTime departure = flightDto.getDeparture();
+        OffsetDateTime arrival = flightDto.getArrival();
+
+        if (departure == null || arrival == null) {
+            throw new IllegalArgumentException("Invalid date and time provided: " + departure + ", " + arrival);
+        }
+    }
+
+    /**
+     * Validates the entire flight DTO object.
+     *
+     * @param flightDto Flight DTO to validate
+     */
+    static void validateFlight(FlightDto flightDto) {
+        validateStatus(flightDto.getStatus());
+        validateOrigin(flightDto.getOrigin());
+        validateDestination(flightDto.getDestination());
+        validateDepartureAndArrival(flightDto);
+    }
+
+    /**
+     * Checks a city name with the rules of the pattern ^[a-zA-Z]+$ without running a regex.
+     *
+     * @param city Name of the city
+     * @return true if the name is non-empty and consists only of ASCII letters, false otherwise
+     */
+    private static boolean isValidCityName(String city) {
+        if (city == null || city.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < city.length(); i++) {
+            char c = city.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
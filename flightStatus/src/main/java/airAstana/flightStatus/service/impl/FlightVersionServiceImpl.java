@@ -0,0 +1,55 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.dto.FlightCursor;
+import airAstana.flightStatus.service.FlightIndexService;
+import airAstana.flightStatus.service.FlightVersionService;
+import org.springframework.stereotype.Service;
+
+/**
+ * derives entity tags of flight listings from the versions of the flight index, so unchanged listings
+ * can be answered without querying or serializing flights. a version only depends on the flights of the listing,
+ * so every node that has refreshed its index hands out the same tag, also after a restart.
+ * without a loaded index no tags are handed out.
+ */
+@Service
+public class FlightVersionServiceImpl implements FlightVersionService {
+
+    private final FlightIndexService flightIndexService;
+
+    public FlightVersionServiceImpl(FlightIndexService flightIndexService) {
+        this.flightIndexService = flightIndexService;
+    }
+
+    /**
+     * builds the entity tag of a page of flights from the current version of its listing.
+     * the request is validated first, so an invalid one is never answered as not modified.
+     *
+     * @param origin      origin of the flights (optional)
+     * @param destination destination of the flights (optional)
+     * @param cursor      cursor of the page (optional)
+     * @param limit       size of the page (optional)
+     * @return quoted strong entity tag, or null if the flight index is not loaded
+     * @throws IllegalArgumentException if origin, destination, cursor or limit is invalid
+     */
+    @Override
+    public String getETag(String origin, String destination, String cursor, Integer limit) {
+        if (origin != null) {
+            FlightValidator.validateOrigin(origin);
+        }
+        if (destination != null) {
+            FlightValidator.validateDestination(destination);
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Invalid limit provided: " + limit);
+        }
+        if (cursor != null) {
+            FlightCursor.decode(cursor);
+        }
+
+        if (!flightIndexService.isReady()) {
+            return null;
+        }
+        return "\"" + Long.toUnsignedString(flightIndexService.getVersion(origin, destination), Character.MAX_RADIX)
+                + "-" + (limit == null ? "" : limit) + "-" + (cursor == null ? "" : cursor) + "\"";
+    }
+}
@@ -0,0 +1,32 @@
+package airAstana.flightStatus.service.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * helpers for waiting on asynchronous lookups from synchronous code.
+ */
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * waits for a future and rethrows its failure as thrown by the asynchronous code, not wrapped in a CompletionException.
+     *
+     * @param future future to wait for
+     * @param <T>    type of the result
+     * @return result of the future
+     * @throws RuntimeException the exception the future failed with
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
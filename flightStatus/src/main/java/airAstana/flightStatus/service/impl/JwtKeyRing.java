@@ -0,0 +1,202 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * HS256 keys used to sign and verify JWTs, identified by the key id written into the token header.
+ * keys are read from a file shared by every node, one key per line in the form {@code kid,activeFrom,secret}
+ * where activeFrom is an ISO-8601 instant and secret is a base64 encoded key of at least 256 bits.
+ * tokens are signed with the key that became active last, and every key in the file is accepted for verification.
+ * to rotate, add the new key with an activeFrom far enough ahead for every node to load it, and remove the old key
+ * once the tokens it signed have expired. the file is checked for changes at most once per refresh interval.
+ */
+final class JwtKeyRing {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    /**
+     * key with its id and the time from which it is used for signing.
+     */
+    record SigningKey(String kid, Key key, Instant activeFrom) {
+    }
+
+    private record Snapshot(Map<String, SigningKey> keys, List<SigningKey> byActivation, FileTime lastModified) {
+    }
+
+    private final Path location;
+
+    private final long refreshIntervalMillis;
+
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    private volatile long checkedAt;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private JwtKeyRing(Path location, long refreshIntervalMillis, Clock clock, Snapshot snapshot) {
+        this.location = location;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.clock = clock;
+        this.snapshot = snapshot;
+        this.checkedAt = clock.millis();
+    }
+
+    /**
+     * loads a key ring from a file.
+     *
+     * @param location              file with one key per line
+     * @param refreshIntervalMillis minimum time between checks of the file for changes
+     * @param clock                 clock deciding which key is active
+     * @return key ring with the keys of the file
+     * @throws java.io.UncheckedIOException if the file cannot be read
+     * @throws IllegalStateException         if the file has an invalid line or contains no keys
+     */
+    static JwtKeyRing load(Path location, long refreshIntervalMillis, Clock clock) {
+        return new JwtKeyRing(location, refreshIntervalMillis, clock, read(location));
+    }
+
+    /**
+     * creates a key ring with a single random key, so tokens are only valid on this node until it restarts.
+     *
+     * @param clock clock deciding which key is active
+     * @return key ring with one random key
+     */
+    static JwtKeyRing ephemeral(Clock clock) {
+        SigningKey key = new SigningKey(UUID.randomUUID().toString(), Keys.secretKeyFor(SignatureAlgorithm.HS256), Instant.EPOCH);
+        return new JwtKeyRing(null, Long.MAX_VALUE, clock, new Snapshot(Map.of(key.kid(), key), List.of(key), null));
+    }
+
+    /**
+     * @return key to sign new tokens with
+     * @throws IllegalStateException if no key is active yet
+     */
+    SigningKey signingKey() {
+        refreshIfDue();
+        Instant now = Instant.ofEpochMilli(clock.millis());
+        for (SigningKey key : snapshot.byActivation()) {
+            if (!key.activeFrom().isAfter(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("No JWT signing key is active yet");
+    }
+
+    /**
+     * @param kid key id from the token header
+     * @return key to verify the token with, or null if the id is unknown
+     */
+    Key verificationKey(String kid) {
+        refreshIfDue();
+        SigningKey key = kid != null ? snapshot.keys().get(kid) : null;
+        return key != null ? key.key() : null;
+    }
+
+    /**
+     * reloads the file if it changed since it was last read. a file that cannot be loaded is logged
+     * and the keys already loaded stay in use. while one thread reloads, the others keep using the loaded keys.
+     */
+    private void refreshIfDue() {
+        if (location == null) {
+            return;
+        }
+        long now = clock.millis();
+        if (now - checkedAt < refreshIntervalMillis) {
+            return;
+        }
+        if (!reloadLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - checkedAt < refreshIntervalMillis) {
+                return;
+            }
+            checkedAt = now;
+            if (!Files.getLastModifiedTime(location).equals(snapshot.lastModified())) {
+                snapshot = read(location);
+                logger.info("JWT key ring reloaded with " + snapshot.keys().size() + " keys from " + location);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("JWT key ring could not be reloaded from " + location + ": " + e.getMessage());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static Snapshot read(Path location) {
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(location);
+            try (BufferedReader reader = Files.newBufferedReader(location, StandardCharsets.UTF_8)) {
+                Map<String, SigningKey> keys = parse(reader);
+                List<SigningKey> byActivation = keys.values().stream()
+                        .sorted(Comparator.comparing(SigningKey::activeFrom).reversed())
+                        .toList();
+                return new Snapshot(keys, byActivation, lastModified);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("JWT key ring could not be read from " + location, e);
+        }
+    }
+
+    /**
+     * parses key ring lines, skipping blank lines and lines starting with #.
+     *
+     * @param reader reader of the key ring file
+     * @return keys by key id
+     * @throws IllegalStateException if a line is invalid, a key id is repeated or there are no keys
+     */
+    static Map<String, SigningKey> parse(BufferedReader reader) throws IOException {
+        Map<String, SigningKey> keys = new HashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3 || fields[0].isBlank()) {
+                throw new IllegalStateException("Invalid JWT key on line " + lineNumber + ": expected kid,activeFrom,secret");
+            }
+            String kid = fields[0].strip();
+            try {
+                Instant activeFrom = Instant.parse(fields[1].strip());
+                Key key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(fields[2].strip()));
+                if (keys.putIfAbsent(kid, new SigningKey(kid, key, activeFrom)) != null) {
+                    throw new IllegalStateException("Duplicate JWT key id on line " + lineNumber + ": " + kid);
+                }
+            } catch (DateTimeParseException | WeakKeyException | IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid JWT key on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("JWT key ring contains no keys");
+        }
+        return keys;
+    }
+}
@@ -1,29 +1,105 @@
 package airAstana.flightStatus.service.impl;
 
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.model.dto.VerifiedToken;
 import airAstana.flightStatus.service.JwtService;
+import airAstana.flightStatus.service.TokenVersionService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.security.Key;
+import java.time.Clock;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.logging.Logger;
 
 /**
  * Implementation of JwtService for JWT token generation, validation, and extraction.
+ * Tokens carry the roles and the token version of their subject, so requests are authenticated from the
+ * verified claims without loading the user. Tokens verified by verifyToken are cached by digest, so repeated
+ * requests with the same token skip the signature check as well.
+ * Tokens are signed with the active key of a JwtKeyRing shared by all nodes and name that key in their kid header,
+ * which selects the verification key directly.
  */
 @Service
 public class JwtServiceImpl implements JwtService {
 
-    private final Key TOKEN_KEY = getSigningKey();
+    static final String ROLES_CLAIM = "roles";
+
+    static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private final JwtKeyRing keyRing;
+
+    private final TokenVersionService tokenVersionService;
+
+    private final long accessTokenTtlMillis;
+
+    private final Clock clock;
+
+    private final JwtParser parser;
+
+    private final VerifiedTokenCache verifiedTokens;
+
+    private final long cacheTtlMillis;
+
+    @Autowired
+    public JwtServiceImpl(TokenVersionService tokenVersionService,
+                          @Value("${jwt.access-token.ttl:900000}") long accessTokenTtlMillis,
+                          @Value("${jwt.cache.max-size:10000}") int cacheMaxSize,
+                          @Value("${jwt.cache.ttl:60000}") long cacheTtlMillis,
+                          @Value("${jwt.keyring.location:}") String keyRingLocation,
+                          @Value("${jwt.keyring.refresh-interval:60000}") long keyRingRefreshIntervalMillis) {
+        this(tokenVersionService, loadKeyRing(keyRingLocation, keyRingRefreshIntervalMillis), accessTokenTtlMillis,
+                cacheMaxSize, cacheTtlMillis, Clock.systemUTC());
+    }
+
+    JwtServiceImpl(TokenVersionService tokenVersionService, JwtKeyRing keyRing, long accessTokenTtlMillis,
+                   int cacheMaxSize, long cacheTtlMillis, Clock clock) {
+        this.tokenVersionService = tokenVersionService;
+        this.keyRing = keyRing;
+        this.accessTokenTtlMillis = accessTokenTtlMillis;
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keyRing.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown JWT key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .setClock(() -> new Date(clock.millis()))
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(cacheMaxSize);
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
 
     /**
      * Generates a JWT token based on user details.
+     * The token carries a unique ID to revoke it by, the roles of the user and its current token version,
+     * and expires after jwt.access-token.ttl.
+     * Clients obtain a new one with their refresh token instead of logging in again.
      *
      * @param userDetails User details to generate the token for
      * @return JWT token as a String
@@ -31,11 +107,16 @@ public class JwtServiceImpl implements JwtService {
     @Override
     @Operation(summary = "Generate JWT Token")
     public String generateToken(@Parameter(description = "User details for generating the token") UserDetails userDetails) {
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24)) // token valid for 24 hours
-                .signWith(TOKEN_KEY, SignatureAlgorithm.HS256)
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .claim(TOKEN_VERSION_CLAIM, currentTokenVersion(userDetails.getUsername()))
+                .setIssuedAt(new Date(clock.millis()))
+                .setExpiration(new Date(clock.millis() + accessTokenTtlMillis))
+                .signWith(signingKey.key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -71,55 +152,103 @@ public class JwtServiceImpl implements JwtService {
      * @return All claims extracted from the JWT token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(TOKEN_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Validates a JWT token against user details.
+     *
+     * @param token       JWT token to validate
+     * @param userDetails User details against which to validate the token
+     * @return True if the token is valid for the user, otherwise false
+     */
+    @Override
+    @Operation(summary = "Validate JWT Token")
+    public Boolean validateToken(@Parameter(description = "JWT token to validate") String token,
+                                 @Parameter(description = "User details against which to validate the token") UserDetails userDetails) {
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date(clock.millis())));
     }
 
     /**
-     * Retrieves the expiration date from a JWT token.
+     * Verifies a JWT token and reads the authorities of its subject from the roles claim.
+     * The result is cached by the digest of the token until the token expires, but for no longer than jwt.cache.ttl.
+     * The token version is compared with the current version of the user on every call, cached or not.
      *
-     * @param token JWT token from which to retrieve the expiration date
-     * @return Expiration date of the JWT token
+     * @param token JWT token to verify
+     * @return Verified token, or null if the token is malformed, has an invalid signature, has expired,
+     * belongs to an unknown user or was issued before its token version was incremented
      */
-    private Date getExpirationDateFromToken(String token) {
-        return extractClaims(token, Claims::getExpiration);
+    @Override
+    @Operation(summary = "Verify JWT Token")
+    public VerifiedToken verifyToken(@Parameter(description = "JWT token to verify") String token) {
+        long now = clock.millis();
+        String digest = VerifiedTokenCache.digest(token);
+        VerifiedToken verified = verifiedTokens.get(digest, now);
+        if (verified == null) {
+            verified = parseVerifiedToken(token);
+            if (verified == null) {
+                return null;
+            }
+            verifiedTokens.put(digest, verified, Math.min(verified.getExpiresAt(), now + cacheTtlMillis), now);
+        }
+
+        Long currentVersion = tokenVersionService.getTokenVersion(verified.getSubject());
+        return currentVersion != null && currentVersion == verified.getTokenVersion() ? verified : null;
     }
 
     /**
-     * Checks if a JWT token is expired.
+     * Verifies a JWT token and builds the verified token from its claims.
      *
-     * @param token JWT token to check for expiration
-     * @return True if the token is expired, otherwise false
+     * @param token JWT token to verify
+     * @return Verified token, or null if the token is malformed, has an invalid signature, has expired
+     * or lacks the ID, expiration, roles or token version claims
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private VerifiedToken parseVerifiedToken(String token) {
+        final Claims claims;
+        final List<?> roles;
+        final Long tokenVersion;
+        try {
+            claims = extractAllClaims(token);
+            roles = claims.get(ROLES_CLAIM, List.class);
+            tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Long.class);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getId() == null || claims.getSubject() == null || claims.getExpiration() == null
+                || roles == null || tokenVersion == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new VerifiedToken(claims.getId(), claims.getSubject(), authorities, claims.getExpiration().getTime(), tokenVersion);
     }
 
     /**
-     * Validates a JWT token against user details.
+     * Retrieves the token version to embed into a new token.
      *
-     * @param token       JWT token to validate
-     * @param userDetails User details against which to validate the token
-     * @return True if the token is valid for the user, otherwise false
+     * @param username Username of the token subject
+     * @return Current token version of the user, or 0 if the user is not stored
      */
-    @Override
-    @Operation(summary = "Validate JWT Token")
-    public Boolean validateToken(@Parameter(description = "JWT token to validate") String token,
-                                 @Parameter(description = "User details against which to validate the token") UserDetails userDetails) {
-        final String username = extractUserName(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private long currentTokenVersion(String username) {
+        Long version = tokenVersionService.getTokenVersion(username);
+        return version != null ? version : 0L;
     }
 
     /**
-     * Retrieves a new signing key for JWT token generation.
+     * Loads the key ring from the configured file, or creates a random key for this node when none is configured.
      *
-     * @return New signing key for JWT token generation
+     * @param location              Path of the key ring file, empty for a random key
+     * @param refreshIntervalMillis Minimum time between checks of the file for changes
+     * @return Key ring to sign and verify tokens with
      */
-    private Key getSigningKey() {
-        return Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    private static JwtKeyRing loadKeyRing(String location, long refreshIntervalMillis) {
+        if (location == null || location.isBlank()) {
+            logger.warning("jwt.keyring.location is not set, tokens are signed with a random key and are only valid on this node until it restarts");
+            return JwtKeyRing.ephemeral(Clock.systemUTC());
+        }
+        return JwtKeyRing.load(Path.of(location), refreshIntervalMillis, Clock.systemUTC());
     }
 }
@@ -0,0 +1,197 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.service.TimeZoneService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * implementation of TimeZoneService resolving cities to IANA time zones without network calls.
+ * cities are looked up by the city part of the zone IDs known to the JDK, such as Almaty for Asia/Almaty,
+ * and by a bundled dataset of other cities. unknown cities are passed to the cached Google based implementation
+ * unless the fallback is disabled.
+ */
+@Service
+@Primary
+public class OfflineTimeZoneServiceImpl implements TimeZoneService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final Set<String> CITY_REGIONS = Set.of(
+            "Africa", "America", "Antarctica", "Asia", "Atlantic", "Australia", "Europe", "Indian", "Pacific");
+
+    private final TimeZoneService fallback;
+
+    private final boolean fallbackEnabled;
+
+    private final Map<String, ZoneId> zonesByCity;
+
+    public OfflineTimeZoneServiceImpl(@Qualifier("cachingTimeZoneServiceImpl") TimeZoneService fallback,
+                                      @Value("${timezone.offline.dataset:timezones/cities.csv}") String dataset,
+                                      @Value("${timezone.offline.fallback-enabled:true}") boolean fallbackEnabled) {
+        this.fallback = fallback;
+        this.fallbackEnabled = fallbackEnabled;
+        this.zonesByCity = loadZones(dataset);
+        logger.info("Loaded time zones of " + zonesByCity.size() + " cities");
+    }
+
+    /**
+     * retrieves coordinates for a given city from the Google based implementation, as they are not part of the dataset.
+     *
+     * @param city Name of the city
+     * @return Array containing latitude and longitude coordinates
+     * @throws InvalidCityException If the city provided is invalid or not found
+     */
+    @Override
+    @Operation(summary = "get coordinates for city")
+    public double[] getCoordinates(@Parameter(description = "city name for which coordinates are requested") String city) {
+        return fallback.getCoordinates(city);
+    }
+
+    /**
+     * retrieves coordinates for a given city from the Google based implementation without blocking.
+     *
+     * @param city Name of the city
+     * @return future of an array containing latitude and longitude coordinates, failing with InvalidCityException
+     * if the city provided is invalid or not found
+     */
+    @Override
+    @Operation(summary = "get coordinates for city asynchronously")
+    public CompletableFuture<double[]> getCoordinatesAsync(@Parameter(description = "city name for which coordinates are requested") String city) {
+        return fallback.getCoordinatesAsync(city);
+    }
+
+    /**
+     * retrieves the UTC offset in hours for given coordinates from the Google based implementation.
+     *
+     * @param coordinates Array containing latitude and longitude coordinates
+     * @return UTC offset in hours
+     */
+    @Override
+    @Operation(summary = "Get UTC Offset for Coordinates")
+    public int getUtcOffset(@Parameter(description = "array containing latitude and longitude coordinates") double[] coordinates) {
+        return fallback.getUtcOffset(coordinates);
+    }
+
+    /**
+     * retrieves the IANA time zone of a given city.
+     *
+     * @param city Name of the city
+     * @return time zone of the city
+     * @throws InvalidCityException If the city is not known and the fallback is disabled or cannot find it
+     */
+    @Override
+    @Operation(summary = "Get Time Zone for City")
+    public ZoneId getZoneId(@Parameter(description = "City name for which time zone is requested") String city) {
+        return Futures.join(getZoneIdAsync(city));
+    }
+
+    /**
+     * retrieves the IANA time zone of a given city without blocking. known cities complete immediately.
+     *
+     * @param city Name of the city
+     * @return future of the time zone of the city, failing with InvalidCityException if the city is not known
+     * and the fallback is disabled or cannot find it
+     */
+    @Override
+    @Operation(summary = "Get Time Zone for City asynchronously")
+    public CompletableFuture<ZoneId> getZoneIdAsync(@Parameter(description = "City name for which time zone is requested") String city) {
+        ZoneId zoneId = city == null ? null : zonesByCity.get(normalize(city));
+        if (zoneId != null) {
+            return CompletableFuture.completedFuture(zoneId);
+        }
+        if (!fallbackEnabled) {
+            return CompletableFuture.failedFuture(new InvalidCityException("Invalid city specified: " + city));
+        }
+
+        logger.info("City " + city + " is not in the time zone dataset, resolving it online");
+        return fallback.getZoneIdAsync(city);
+    }
+
+    /**
+     * Retrieves OffsetDateTime adjusted to the time zone of a given city, using the offset in effect at that local date-time.
+     *
+     * @param offsetDateTime Original OffsetDateTime
+     * @param city           Name of the city
+     * @return OffsetDateTime adjusted to the city's time zone
+     */
+    @Override
+    @Operation(summary = "Get Zoned Date Time for City")
+    public OffsetDateTime getZonedDateTime(@Parameter(description = "Original OffsetDateTime") OffsetDateTime offsetDateTime,
+                                           @Parameter(description = "City name for which time zone is requested") String city) {
+        return offsetDateTime.toLocalDateTime().atZone(getZoneId(city)).toOffsetDateTime();
+    }
+
+    /**
+     * builds the city lookup from the zone IDs known to the JDK and the bundled dataset, which takes precedence.
+     *
+     * @param dataset Classpath location of the dataset with city,zone lines
+     * @return time zones by normalized city name
+     */
+    private static Map<String, ZoneId> loadZones(String dataset) {
+        Map<String, ZoneId> zones = new HashMap<>();
+
+        for (String zoneId : ZoneId.getAvailableZoneIds()) {
+            int separator = zoneId.lastIndexOf('/');
+            if (separator > 0 && CITY_REGIONS.contains(zoneId.substring(0, zoneId.indexOf('/')))) {
+                zones.putIfAbsent(normalize(zoneId.substring(separator + 1)), ZoneId.of(zoneId));
+            }
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(dataset).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                try {
+                    zones.put(normalize(columns[0]), ZoneId.of(columns[1].trim()));
+                } catch (DateTimeException | ArrayIndexOutOfBoundsException e) {
+                    logger.warning("Skipping invalid time zone dataset line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load time zone dataset " + dataset, e);
+        }
+        return zones;
+    }
+
+    /**
+     * normalizes a city name by dropping everything except letters and lower-casing it, so New_York matches NewYork.
+     *
+     * @param city Name of the city
+     * @return normalized name
+     */
+    static String normalize(String city) {
+        StringBuilder normalized = new StringBuilder(city.length());
+        for (int i = 0; i < city.length(); i++) {
+            char c = city.charAt(i);
+            if (Character.isLetter(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+}
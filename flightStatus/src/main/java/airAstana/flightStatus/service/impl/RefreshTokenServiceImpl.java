@@ -0,0 +1,148 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.exception.InvalidRefreshTokenException;
+import airAstana.flightStatus.model.RefreshToken;
+import airAstana.flightStatus.model.dto.RefreshTokenRotation;
+import airAstana.flightStatus.repository.RefreshTokenRepository;
+import airAstana.flightStatus.service.RefreshTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * implementation of RefreshTokenService keeping refresh tokens in the refresh_tokens table, so they stay valid
+ * across restarts and on every node. tokens are random and only their digests are stored.
+ * every refresh token is valid for a single rotation, after which it is kept as used until it expires.
+ * marking a token as used is a conditional update, so presenting a used token again is detected by the database
+ * even when two nodes rotate it at the same time. a reused token means it was copied, so every token descending
+ * from the same login is revoked and the user has to log in again. expired tokens are deleted at most once
+ * per purge interval when a token is issued.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final AtomicLong purgedAt = new AtomicLong();
+
+    @Autowired
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   @Value("${jwt.refresh-token.ttl:1209600000}") long ttlMillis) {
+        this(refreshTokenRepository, ttlMillis, Clock.systemUTC());
+    }
+
+    RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, long ttlMillis, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * issues a refresh token starting a new family.
+     *
+     * @param username user the token is issued to
+     * @return refresh token
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "issue Refresh Token")
+    public String issue(@Parameter(description = "user the token is issued to") String username) {
+        long now = clock.millis();
+        long lastPurge = purgedAt.get();
+        if (now - lastPurge >= PURGE_INTERVAL_MILLIS && purgedAt.compareAndSet(lastPurge, now)) {
+            refreshTokenRepository.deleteExpired(toOffsetDateTime(now));
+        }
+
+        String token = newToken();
+        String digest = VerifiedTokenCache.digest(token);
+        refreshTokenRepository.save(new RefreshToken(digest, username, digest, toOffsetDateTime(now + ttlMillis), false));
+        return token;
+    }
+
+    /**
+     * exchanges a refresh token for a new one of the same family.
+     * the family is revoked even though the exception is thrown, so callers must not roll back on it.
+     *
+     * @param refreshToken refresh token returned by the last login or rotation
+     * @return user of the token and its successor
+     * @throws InvalidRefreshTokenException if the token is unknown, expired or was already used
+     */
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    @Operation(summary = "rotate Refresh Token")
+    public RefreshTokenRotation rotate(@Parameter(description = "refresh token to exchange") String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new InvalidRefreshTokenException("Refresh token is missing");
+        }
+        String digest = VerifiedTokenCache.digest(refreshToken);
+        long now = clock.millis();
+
+        RefreshToken stored = refreshTokenRepository.findById(digest).orElse(null);
+        if (stored == null || stored.getExpiresAt().toInstant().toEpochMilli() <= now) {
+            throw new InvalidRefreshTokenException("Refresh token is invalid or expired");
+        }
+        if (stored.isUsed() || refreshTokenRepository.markUsed(digest) == 0) {
+            refreshTokenRepository.deleteFamilyOf(digest);
+            logger.warning("Refresh token of user " + stored.getUsername() + " was reused, all tokens of its login have been revoked");
+            throw new InvalidRefreshTokenException("Refresh token was already used");
+        }
+
+        String successor = newToken();
+        refreshTokenRepository.save(new RefreshToken(VerifiedTokenCache.digest(successor), stored.getUsername(),
+                stored.getFamily(), toOffsetDateTime(now + ttlMillis), false));
+        return new RefreshTokenRotation(stored.getUsername(), successor);
+    }
+
+    /**
+     * revokes a refresh token of a user along with every token descending from the same login.
+     * unknown tokens and tokens of other users are ignored.
+     *
+     * @param refreshToken refresh token to revoke
+     * @param username     user the refresh token has to belong to
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "revoke Refresh Token")
+    public void revoke(@Parameter(description = "refresh token to revoke") String refreshToken,
+                       @Parameter(description = "user the refresh token has to belong to") String username) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return;
+        }
+        refreshTokenRepository.deleteFamilyOfOwnedBy(VerifiedTokenCache.digest(refreshToken), username);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static OffsetDateTime toOffsetDateTime(long millis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
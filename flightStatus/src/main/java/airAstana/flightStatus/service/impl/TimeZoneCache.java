@@ -0,0 +1,218 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.exception.InvalidCityException;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * size-bounded least recently used cache with expiring entries for time zone lookups.
+ * invalid cities are cached as well for a shorter time, so repeated bad input does not reach the API.
+ * values are loaded outside of the lock, so a slow lookup does not block lookups of other keys, and concurrent
+ * lookups of a key that is being loaded wait for that load instead of starting their own.
+ *
+ * @param <V> type of the cached values
+ */
+final class TimeZoneCache<V> {
+
+    /**
+     * cached value, or the message of the InvalidCityException thrown when value is null.
+     */
+    record Entry<V>(V value, String invalidCityMessage, long expiresAt) {
+    }
+
+    private final LinkedHashMap<String, Entry<V>> entries;
+
+    private final long ttlMillis;
+
+    private final long negativeTtlMillis;
+
+    private final Clock clock;
+
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    TimeZoneCache(int maxSize, long ttlMillis, long negativeTtlMillis, Clock clock) {
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * returns the cached value of a key, loading and caching it if it is missing or expired.
+     *
+     * @param key    cache key
+     * @param loader loads the value of a key, may throw InvalidCityException
+     * @return cached or loaded value
+     * @throws InvalidCityException if the key is cached as invalid or the loader throws it
+     */
+    V get(String key, Function<String, V> loader) {
+        return Futures.join(getAsync(key, k -> CompletableFuture.completedFuture(loader.apply(k))));
+    }
+
+    /**
+     * returns a future of the cached value of a key, loading and caching it if it is missing or expired.
+     *
+     * @param key    cache key
+     * @param loader starts loading the value of a key, the future may fail with InvalidCityException
+     * @return future of the cached or loaded value, failing with InvalidCityException if the key is cached as invalid
+     */
+    CompletableFuture<V> getAsync(String key, Function<String, CompletableFuture<V>> loader) {
+        Entry<V> entry = lookup(key, clock.millis());
+        if (entry != null) {
+            hits.incrementAndGet();
+            CompletableFuture<V> cached = new CompletableFuture<>();
+            complete(cached, entry);
+            return cached;
+        }
+
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> inFlightLoad = inFlight.putIfAbsent(key, loading);
+        if (inFlightLoad != null) {
+            coalesced.incrementAndGet();
+            return inFlightLoad.copy();
+        }
+
+        Entry<V> loaded = lookup(key, clock.millis());
+        if (loaded != null) {
+            hits.incrementAndGet();
+            inFlight.remove(key, loading);
+            complete(loading, loaded);
+            return loading.copy();
+        }
+
+        misses.incrementAndGet();
+        CompletableFuture<V> future;
+        try {
+            future = loader.apply(key);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((value, failure) -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause == null) {
+                put(key, new Entry<>(value, null, clock.millis() + ttlMillis));
+            } else if (cause instanceof InvalidCityException) {
+                put(key, new Entry<>(null, cause.getMessage(), clock.millis() + negativeTtlMillis));
+            }
+            inFlight.remove(key, loading);
+
+            if (cause == null) {
+                loading.complete(value);
+            } else {
+                loading.completeExceptionally(cause);
+            }
+        });
+        return loading.copy();
+    }
+
+    /**
+     * returns the unexpired entry of a key, removing it if it expired.
+     *
+     * @param key cache key
+     * @param now current time in milliseconds
+     * @return entry of the key, or null if there is none or it expired
+     */
+    private Entry<V> lookup(String key, long now) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt() <= now) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private static <V> void complete(CompletableFuture<V> future, Entry<V> entry) {
+        if (entry.value() == null) {
+            future.completeExceptionally(new InvalidCityException(entry.invalidCityMessage()));
+        } else {
+            future.complete(entry.value());
+        }
+    }
+
+    /**
+     * caches a value, keeping its expiry time.
+     *
+     * @param key   cache key
+     * @param entry value and expiry time
+     */
+    void put(String key, Entry<V> entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * copies the cached values that have not expired, in least recently used order.
+     *
+     * @return unexpired entries holding a value
+     */
+    List<Map.Entry<String, Entry<V>>> snapshot() {
+        long now = clock.millis();
+        List<Map.Entry<String, Entry<V>>> snapshot = new ArrayList<>();
+        synchronized (entries) {
+            for (Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+                if (entry.getValue().value() != null && entry.getValue().expiresAt() > now) {
+                    snapshot.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    long getCoalesced() {
+        return coalesced.get();
+    }
+}
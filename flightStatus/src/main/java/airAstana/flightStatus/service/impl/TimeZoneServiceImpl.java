@@ -1,6 +1,8 @@
 package airAstana.flightStatus.service.impl;
 
+import airAstana.flightStatus.configuration.LoggerManager;
 import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.exception.TimeZoneServiceUnavailableException;
 import airAstana.flightStatus.service.TimeZoneService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,68 +12,123 @@ import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * implementation of TimeZoneService providing operations related to time zones and city coordinates.
+ * requests go through one shared HttpClient and are sent asynchronously, the blocking methods wait for them.
+ * calls are guarded by a circuit breaker, a limit on concurrent calls and a deadline per lookup, and a time zone
+ * lookup that cannot reach the API falls back to the last time zone found for the city.
  */
 @Service
 public class TimeZoneServiceImpl implements TimeZoneService {
 
-    @Value("${google.apikey}")
-    String API_KEY;
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final int MAX_LAST_KNOWN_ZONES = 10000;
+
+    private static final String STATUS_OK = "OK";
+
+    private static final String STATUS_ZERO_RESULTS = "ZERO_RESULTS";
+
+    private static final String STATUS_INVALID_REQUEST = "INVALID_REQUEST";
+
+    private final HttpClient httpClient;
+
+    private final String apiKey;
+
+    private final String baseUrl;
+
+    private final Duration requestTimeout;
+
+    private final long deadlineMillis;
+
+    private final Semaphore bulkhead;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Map<String, ZoneId> lastKnownZones = new ConcurrentHashMap<>();
+
+    public TimeZoneServiceImpl(HttpClient httpClient,
+                               @Value("${google.apikey}") String apiKey,
+                               @Value("${timezone.google.base-url:https://maps.googleapis.com/maps/api}") String baseUrl,
+                               @Value("${timezone.http.request-timeout:5000}") long requestTimeoutMillis,
+                               @Value("${timezone.http.deadline:8000}") long deadlineMillis,
+                               @Value("${timezone.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+                               @Value("${timezone.breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${timezone.breaker.open-duration:30000}") long openDurationMillis) {
+        this.httpClient = httpClient;
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.deadlineMillis = deadlineMillis;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMillis, Clock.systemUTC());
+    }
 
     /**
      * retrieves coordinates (latitude and longitude) for a given city using Google Maps Geocoding API.
      *
      * @param city Name of the city
      * @return Array containing latitude and longitude coordinates
-     * @throws InvalidCityException If the city provided is invalid or not found
+     * @throws InvalidCityException                If the city provided is invalid or not found
+     * @throws TimeZoneServiceUnavailableException If the API cannot be reached in time or the circuit breaker is open
      */
     @Override
     @Operation(summary = "get coordinates for city")
     public double[] getCoordinates(@Parameter(description = "city name for which coordinates are requested") String city) throws InvalidCityException {
-        double[] coordinates = new double[2];
-
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .GET()
-                    .uri(URI.create("https://maps.googleapis.com/maps/api/geocode/json?address=" + city + "&key=" + API_KEY))
-                    .build();
+        return Futures.join(getCoordinatesAsync(city));
+    }
 
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * retrieves coordinates (latitude and longitude) for a given city using Google Maps Geocoding API without blocking.
+     *
+     * @param city Name of the city
+     * @return future of an array containing latitude and longitude coordinates, failing with InvalidCityException
+     * if the city provided is invalid or not found, or with TimeZoneServiceUnavailableException if the API cannot be used
+     */
+    @Override
+    @Operation(summary = "get coordinates for city asynchronously")
+    public CompletableFuture<double[]> getCoordinatesAsync(@Parameter(description = "city name for which coordinates are requested") String city) {
+        String uri = baseUrl + "/geocode/json?address=" + URLEncoder.encode(city == null ? "" : city, StandardCharsets.UTF_8) + "&key=" + apiKey;
 
-            JSONObject jsonObject = new JSONObject(response.body());
-            String status = jsonObject.getString("status");
+        return send(uri).handle((jsonObject, failure) -> {
+            if (failure != null) {
+                throw unavailable(failure);
+            }
+            checkStatus(jsonObject, "Invalid city specified: " + city);
 
-            if ("OK".equals(status)) {
+            try {
+                double[] coordinates = new double[2];
                 JSONArray resultsArray = jsonObject.getJSONArray("results");
                 if (resultsArray.length() > 0) {
-                    JSONObject firstResult = resultsArray.getJSONObject(0);
-                    JSONObject geometry = firstResult.getJSONObject("geometry");
-                    JSONObject location = geometry.getJSONObject("location");
-
-                    double lat = location.getDouble("lat");
-                    double lng = location.getDouble("lng");
-                    coordinates[0] = lat;
-                    coordinates[1] = lng;
-
-                    return coordinates;
+                    JSONObject location = resultsArray.getJSONObject(0).getJSONObject("geometry").getJSONObject("location");
+                    coordinates[0] = location.getDouble("lat");
+                    coordinates[1] = location.getDouble("lng");
                 }
-            } else {
-                throw new InvalidCityException("Invalid city specified: " + city);
+                return coordinates;
+            } catch (JSONException e) {
+                throw new InvalidCityException("Error retrieving coordinates for city: " + city);
             }
-        } catch (IOException | InterruptedException | JSONException e) {
-            throw new InvalidCityException("Error retrieving coordinates for city: " + city);
-        }
-        return coordinates;
+        });
     }
 
     /**
@@ -83,28 +140,74 @@ public class TimeZoneServiceImpl implements TimeZoneService {
     @Override
     @Operation(summary = "Get UTC Offset for Coordinates")
     public int getUtcOffset(@Parameter(description = "array containing latitude and longitude coordinates") double[] coordinates) {
-        double lat = coordinates[0];
-        double lng = coordinates[1];
-
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .GET()
-                    .uri(URI.create("https://maps.googleapis.com/maps/api/timezone/json?location=" + lat + "%2C" + lng + "&timestamp=1577836800&key=" + API_KEY))
-                    .build();
-
-            HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-
-            JSONObject jsonObject = new JSONObject(response.body());
-            String status = jsonObject.getString("status");
-            if ("OK".equals(status)) {
-                return jsonObject.getInt("rawOffset") / 3600;
-            } else {
-                throw new JSONException("Error while getting UTC offset");
+        return Futures.join(getTimeZoneAsync(coordinates).handle((jsonObject, failure) -> {
+            if (failure != null || !"OK".equals(jsonObject.optString("status")) || !jsonObject.has("rawOffset")) {
+                throw new RuntimeException("Error retrieving UTC offset for coordinates");
             }
-        } catch (IOException | InterruptedException | JSONException e) {
-            throw new RuntimeException("Error retrieving UTC offset for coordinates");
-        }
+            return jsonObject.getInt("rawOffset") / 3600;
+        }));
+    }
+
+    /**
+     * retrieves the IANA time zone of a given city, so offsets follow daylight saving time and fractional-hour zones.
+     *
+     * @param city Name of the city
+     * @return time zone of the city
+     * @throws InvalidCityException                If the city provided is invalid or not found
+     * @throws TimeZoneServiceUnavailableException If the API cannot be used and no time zone of the city is known
+     */
+    @Override
+    @Operation(summary = "Get Time Zone for City")
+    public ZoneId getZoneId(@Parameter(description = "City name for which time zone is requested") String city) {
+        return Futures.join(getZoneIdAsync(city));
+    }
+
+    /**
+     * retrieves the IANA time zone of a given city without blocking, within the lookup deadline.
+     * if the API cannot be used, the last time zone found for the city is returned.
+     *
+     * @param city Name of the city
+     * @return future of the time zone of the city, failing with InvalidCityException if the city provided is invalid or not found,
+     * or with TimeZoneServiceUnavailableException if the API cannot be used and no time zone of the city is known
+     */
+    @Override
+    @Operation(summary = "Get Time Zone for City asynchronously")
+    public CompletableFuture<ZoneId> getZoneIdAsync(@Parameter(description = "City name for which time zone is requested") String city) {
+        String cityKey = city == null ? "" : OfflineTimeZoneServiceImpl.normalize(city);
+
+        return getCoordinatesAsync(city)
+                .thenCompose(this::getTimeZoneAsync)
+                .thenApply(jsonObject -> {
+                    checkStatus(jsonObject, "Error retrieving time zone for city: " + city);
+                    return jsonObject;
+                })
+                .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+                .handle((jsonObject, failure) -> {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof InvalidCityException invalidCity) {
+                        throw invalidCity;
+                    }
+                    if (cause != null) {
+                        ZoneId lastKnownZone = lastKnownZones.get(cityKey);
+                        if (lastKnownZone == null) {
+                            throw unavailable(cause);
+                        }
+                        logger.warning("Time zone API unavailable, using last known time zone of " + city + ": " + cause.getMessage());
+                        return lastKnownZone;
+                    }
+
+                    String timeZoneId = jsonObject.optString("timeZoneId");
+                    ZoneId zoneId;
+                    try {
+                        zoneId = ZoneId.of(timeZoneId);
+                    } catch (DateTimeException e) {
+                        throw new InvalidCityException("Unknown time zone " + timeZoneId + " for city: " + city);
+                    }
+                    if (lastKnownZones.size() < MAX_LAST_KNOWN_ZONES || lastKnownZones.containsKey(cityKey)) {
+                        lastKnownZones.put(cityKey, zoneId);
+                    }
+                    return zoneId;
+                });
     }
 
     /**
@@ -118,8 +221,104 @@ public class TimeZoneServiceImpl implements TimeZoneService {
     @Operation(summary = "Get Zoned Date Time for City")
     public OffsetDateTime getZonedDateTime(@Parameter(description = "Original OffsetDateTime") OffsetDateTime offsetDateTime,
                                            @Parameter(description = "City name for which time zone is requested") String city) {
-        int utcOffset = getUtcOffset(getCoordinates(city));
+        return offsetDateTime.toLocalDateTime().atZone(getZoneId(city)).toOffsetDateTime();
+    }
+
+    /**
+     * retrieves the time zone at given geographical coordinates using Google Maps Time Zone API.
+     *
+     * @param coordinates Array containing latitude and longitude coordinates
+     * @return future of the Time Zone API response
+     */
+    private CompletableFuture<JSONObject> getTimeZoneAsync(double[] coordinates) {
+        return send(baseUrl + "/timezone/json?location=" + coordinates[0] + "%2C" + coordinates[1]
+                + "&timestamp=" + Instant.now().getEpochSecond() + "&key=" + apiKey);
+    }
+
+    /**
+     * sends a GET request through the shared client and parses the JSON response.
+     * the call fails fast if the circuit breaker is open or too many calls are already in flight.
+     * transport errors, timeouts, server errors, unparsable bodies and every API status other than OK and
+     * ZERO_RESULTS count as failures for the circuit breaker, so a rate limited or revoked key opens it.
+     *
+     * @param uri URI of the request
+     * @return future of the parsed response, failing with TimeZoneServiceUnavailableException if the API cannot be used
+     */
+    private CompletableFuture<JSONObject> send(String uri) {
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(new TimeZoneServiceUnavailableException("Too many concurrent time zone API calls"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(new TimeZoneServiceUnavailableException("Time zone API circuit breaker is open"));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(URI.create(uri))
+                .timeout(requestTimeout)
+                .build();
+
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response.handle((httpResponse, failure) -> {
+            bulkhead.release();
+            if (failure != null || httpResponse.statusCode() >= 500 || httpResponse.statusCode() == 429) {
+                circuitBreaker.onFailure();
+                throw new TimeZoneServiceUnavailableException("Time zone API call failed: "
+                        + (failure != null ? failure : "HTTP " + httpResponse.statusCode()));
+            }
+            JSONObject jsonObject;
+            try {
+                jsonObject = new JSONObject(httpResponse.body());
+            } catch (JSONException e) {
+                circuitBreaker.onFailure();
+                throw new TimeZoneServiceUnavailableException("Time zone API returned an invalid response: " + e.getMessage());
+            }
+            String status = jsonObject.optString("status");
+            if (STATUS_OK.equals(status) || STATUS_ZERO_RESULTS.equals(status)) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            return jsonObject;
+        });
+    }
+
+    /**
+     * checks the status of an API response. only ZERO_RESULTS and INVALID_REQUEST say that the city cannot be found,
+     * any other status, such as OVER_QUERY_LIMIT, REQUEST_DENIED or UNKNOWN_ERROR, means the API did not answer.
+     *
+     * @param jsonObject     API response
+     * @param invalidMessage message of the exception thrown if the city cannot be found
+     * @throws InvalidCityException                if the status is ZERO_RESULTS or INVALID_REQUEST
+     * @throws TimeZoneServiceUnavailableException if the status is neither OK nor one of those
+     */
+    private static void checkStatus(JSONObject jsonObject, String invalidMessage) {
+        String status = jsonObject.optString("status");
+        if (STATUS_OK.equals(status)) {
+            return;
+        }
+        if (STATUS_ZERO_RESULTS.equals(status) || STATUS_INVALID_REQUEST.equals(status)) {
+            throw new InvalidCityException(invalidMessage);
+        }
+        throw new TimeZoneServiceUnavailableException("Time zone API returned status " + status);
+    }
+
+    private static TimeZoneServiceUnavailableException unavailable(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        if (cause instanceof TimeZoneServiceUnavailableException unavailable) {
+            return unavailable;
+        }
+        return new TimeZoneServiceUnavailableException("Time zone API call failed: " + cause);
+    }
 
-        return OffsetDateTime.of(offsetDateTime.toLocalDateTime(), ZoneOffset.ofHours(utcOffset));
+    CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
     }
 }
@@ -0,0 +1,245 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.LoggerManager;
+import airAstana.flightStatus.event.TokenRevokedEvent;
+import airAstana.flightStatus.model.RevokedToken;
+import airAstana.flightStatus.repository.RevokedTokenRepository;
+import airAstana.flightStatus.service.TokenRevocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * implementation of TokenRevocationService keeping the IDs of revoked, unexpired tokens in memory.
+ * a Bloom filter in front of the exact set answers the common case of a token that is not revoked without
+ * touching the set, only IDs the filter may contain are looked up. revocations are stored in the revoked_tokens
+ * table and added to memory once they commit. the table is loaded at startup, and afterwards the rows revoked since
+ * the last load are read at most once per refresh interval, so revocations made on other nodes are picked up too.
+ * once more IDs were added than the filter is sized for, expired IDs are dropped from the set and the filter is
+ * rebuilt from the remaining ones. expired rows are deleted from the table at most once per purge interval.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger logger = LoggerManager.getLogger();
+
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    /**
+     * how far before the last load a reload starts reading, so rows of transactions that committed after it
+     * and revocation times of nodes whose clocks are behind are not missed. rows read twice are harmless.
+     */
+    private static final long RELOAD_OVERLAP_MILLIS = 60_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int expectedTokens;
+
+    private final double falsePositiveRate;
+
+    private final long refreshIntervalMillis;
+
+    private final Clock clock;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    private volatile long loadedAt;
+
+    private final AtomicLong purgedAt = new AtomicLong();
+
+    /**
+     * serializes changes of the set and filter rebuilds.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * held while the table is read. a lock instead of synchronized, as it is held across JDBC calls
+     * and would otherwise pin virtual threads to their carrier.
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @Autowired
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${jwt.revocation.expected-tokens:100000}") int expectedTokens,
+                                      @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                      @Value("${jwt.revocation.refresh-interval:10000}") long refreshIntervalMillis) {
+        this(revokedTokenRepository, eventPublisher, expectedTokens, falsePositiveRate, refreshIntervalMillis, Clock.systemUTC());
+    }
+
+    TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository, ApplicationEventPublisher eventPublisher,
+                               int expectedTokens, double falsePositiveRate, long refreshIntervalMillis, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.clock = clock;
+        this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+        this.loadedAt = clock.millis();
+    }
+
+    /**
+     * loads the revoked tokens that have not expired yet.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Operation(summary = "load Revoked Tokens")
+    public void load() {
+        reloadLock.lock();
+        try {
+            long now = clock.millis();
+            List<RevokedToken> tokens = revokedTokenRepository.findAllByExpiresAtAfter(toOffsetDateTime(now));
+            lock.lock();
+            try {
+                revoked.clear();
+                for (RevokedToken token : tokens) {
+                    revoked.put(token.getJti(), token.getExpiresAt().toInstant().toEpochMilli());
+                }
+                rebuildFilter();
+            } finally {
+                lock.unlock();
+            }
+            loadedAt = now;
+        } finally {
+            reloadLock.unlock();
+        }
+        logger.info("Loaded " + revoked.size() + " revoked tokens");
+    }
+
+    /**
+     * revokes a token until it expires. the token counts as revoked once the transaction commits.
+     *
+     * @param tokenId   ID (jti claim) of the token
+     * @param expiresAt expiration of the token in milliseconds
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "revoke Token")
+    public void revoke(@Parameter(description = "ID of the token") String tokenId,
+                                    @Parameter(description = "expiration of the token in milliseconds") long expiresAt) {
+        long now = clock.millis();
+        if (revoked.containsKey(tokenId) || expiresAt <= now) {
+            return;
+        }
+        long lastPurge = purgedAt.get();
+        if (now - lastPurge >= PURGE_INTERVAL_MILLIS && purgedAt.compareAndSet(lastPurge, now)) {
+            revokedTokenRepository.deleteExpired(toOffsetDateTime(now));
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, toOffsetDateTime(expiresAt), toOffsetDateTime(now)));
+        eventPublisher.publishEvent(new TokenRevokedEvent(tokenId, expiresAt));
+    }
+
+    /**
+     * checks whether a token was revoked.
+     *
+     * @param tokenId ID (jti claim) of the token
+     * @return true if the token was revoked, otherwise false
+     */
+    @Override
+    @Operation(summary = "check Token Revoked")
+    public boolean isRevoked(@Parameter(description = "ID of the token") String tokenId) {
+        refreshIfDue();
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * adds a committed revocation to memory.
+     *
+     * @param event event describing the revoked token
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        add(Map.of(event.getTokenId(), event.getExpiresAt()));
+    }
+
+    /**
+     * reads the rows revoked since the last load if the refresh interval passed. a failed read is logged and
+     * retried after the next interval. while one thread reads, the others keep using the loaded IDs.
+     */
+    private void refreshIfDue() {
+        long now = clock.millis();
+        if (now - loadedAt < refreshIntervalMillis) {
+            return;
+        }
+        if (!reloadLock.tryLock()) {
+            return;
+        }
+        try {
+            long since = loadedAt;
+            if (now - since < refreshIntervalMillis) {
+                return;
+            }
+            loadedAt = now;
+            Map<String, Long> tokens = new HashMap<>();
+            for (RevokedToken token : revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(
+                    toOffsetDateTime(since - RELOAD_OVERLAP_MILLIS), toOffsetDateTime(now))) {
+                tokens.put(token.getJti(), token.getExpiresAt().toInstant().toEpochMilli());
+            }
+            add(tokens);
+        } catch (RuntimeException e) {
+            logger.warning("Revoked tokens could not be reloaded: " + e.getMessage());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void add(Map<String, Long> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            tokens.forEach((tokenId, expiresAt) -> {
+                if (revoked.put(tokenId, expiresAt) == null) {
+                    filter.add(tokenId);
+                }
+            });
+            if (filter.isFull()) {
+                long now = clock.millis();
+                revoked.values().removeIf(expiry -> expiry <= now);
+                rebuildFilter();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * replaces the filter with one holding exactly the revoked IDs, sized for at least twice as many.
+     * callers hold the lock, so no revocation is added to the old filter while the new one is built.
+     */
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(long millis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
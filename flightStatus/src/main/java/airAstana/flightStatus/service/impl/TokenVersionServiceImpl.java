@@ -0,0 +1,110 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.TokenVersionChangedEvent;
+import airAstana.flightStatus.model.User;
+import airAstana.flightStatus.repository.UserRepository;
+import airAstana.flightStatus.service.TokenVersionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * implementation of TokenVersionService caching the committed token version of every user in memory.
+ * users.token_version is the authoritative value: a cached version is read again from the database once it is
+ * older than the configured time to live, so increments made on other nodes are seen within that time.
+ * increments made on this node are applied to the cache only after their transaction commits,
+ * so a rolled back increment never invalidates tokens. versions only grow, so the higher of two values wins.
+ */
+@Service
+public class TokenVersionServiceImpl implements TokenVersionService {
+
+    private record CachedVersion(long version, long loadedAt) {
+    }
+
+    private final UserRepository userRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long ttlMillis;
+
+    private final Clock clock;
+
+    private final Map<String, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenVersionServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                                   @Value("${jwt.token-version.ttl:5000}") long ttlMillis) {
+        this(userRepository, eventPublisher, ttlMillis, Clock.systemUTC());
+    }
+
+    TokenVersionServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher, long ttlMillis, Clock clock) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * retrieves the current token version of a user, reading it from the database if it is not cached or has expired.
+     *
+     * @param username username of the user
+     * @return current token version, or null if the user does not exist
+     */
+    @Override
+    @Operation(summary = "get Token Version")
+    public Long getTokenVersion(@Parameter(description = "username of the user") String username) {
+        String key = username.toLowerCase(Locale.ROOT);
+        long now = clock.millis();
+        CachedVersion cached = versions.get(key);
+        if (cached != null && now - cached.loadedAt() < ttlMillis) {
+            return cached.version();
+        }
+        return userRepository.findTokenVersionByUsernameIgnoreCase(username)
+                .map(loaded -> cache(key, loaded, now))
+                .orElseGet(() -> {
+                    versions.remove(key);
+                    return null;
+                });
+    }
+
+    /**
+     * increments the token version of a user, so tokens issued before are no longer accepted once the change commits.
+     * the user has to be saved by the caller.
+     *
+     * @param user user whose tokens are invalidated
+     * @return new token version
+     */
+    @Override
+    @Operation(summary = "increment Token Version")
+    public long incrementTokenVersion(@Parameter(description = "user whose tokens are invalidated") User user) {
+        long version = user.getTokenVersion() + 1;
+        user.setTokenVersion(version);
+        eventPublisher.publishEvent(new TokenVersionChangedEvent(user.getUsername(), version));
+        return version;
+    }
+
+    /**
+     * applies a committed token version increment to the cache.
+     *
+     * @param event event describing the new token version
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+        cache(event.getUsername().toLowerCase(Locale.ROOT), event.getTokenVersion(), clock.millis());
+    }
+
+    private long cache(String key, long version, long now) {
+        return versions.merge(key, new CachedVersion(version, now),
+                (current, loaded) -> loaded.version() >= current.version() ? loaded : current).version();
+    }
+}
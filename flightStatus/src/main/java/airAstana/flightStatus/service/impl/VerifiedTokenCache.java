@@ -0,0 +1,106 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.dto.VerifiedToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * size-bounded cache of verified JWTs.
+ * tokens are keyed by their SHA-256 digest, so the cache holds no usable credentials and keys have a fixed size.
+ * reads never lock, so concurrent requests do not contend on the cache. once a put takes the cache over its maximum
+ * size, one thread drops the expired entries and then further entries until a tenth of the maximum is free again.
+ * digests are uniformly distributed, so the entries dropped by iteration order are in effect chosen at random.
+ */
+final class VerifiedTokenCache {
+
+    private record Entry(VerifiedToken token, long expiresAt) {
+    }
+
+    private final int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * held by the thread evicting entries. a lock instead of synchronized, so virtual threads are not pinned,
+     * and other threads skip eviction with tryLock instead of waiting for it.
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * computes the key a token is cached under.
+     *
+     * @param token JWT token
+     * @return hex encoded SHA-256 digest of the token
+     */
+    static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param digest digest of the token
+     * @param now    current time in milliseconds
+     * @return verified token, or null if it is not cached or the entry has expired
+     */
+    VerifiedToken get(String digest, long now) {
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= now) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        return entry.token();
+    }
+
+    /**
+     * @param digest    digest of the token
+     * @param token     verified token
+     * @param expiresAt time in milliseconds after which the entry is no longer returned
+     * @param now       current time in milliseconds
+     */
+    void put(String digest, VerifiedToken token, long expiresAt, long now) {
+        entries.put(digest, new Entry(token, expiresAt));
+        if (entries.size() > maxSize && evictionLock.tryLock()) {
+            try {
+                evict(now);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> digests = entries.keySet().iterator();
+        while (entries.size() > target && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+--liquibase formatted sql
+
+--changeset alishersharipov:add keyset pagination indexes to "flights" table
+
+CREATE INDEX flights_arrival_id_idx ON flights (arrival, id);
+CREATE INDEX flights_origin_arrival_id_idx ON flights (UPPER(origin), arrival, id);
+CREATE INDEX flights_destination_arrival_id_idx ON flights (UPPER(destination), arrival, id);
+CREATE INDEX flights_route_arrival_id_idx ON flights (UPPER(origin), UPPER(destination), arrival, id);
+
+--changeset alishersharipov:widen "flights" id to BIGINT and increment its sequence by the pooled allocation size
+
+ALTER TABLE flights ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE flights_id_seq AS BIGINT INCREMENT BY 50;
+SELECT setval('flights_id_seq', GREATEST(COALESCE(MAX(id), 0), 1)) FROM flights;
+
+--changeset alishersharipov:add token version to "users" table
+
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
+
+--changeset alishersharipov:create "revoked_tokens" table
+
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+CREATE INDEX revoked_tokens_expires_at_idx ON revoked_tokens (expires_at);
+CREATE INDEX revoked_tokens_revoked_at_idx ON revoked_tokens (revoked_at);
+
+--changeset alishersharipov:create "refresh_tokens" table
+
+CREATE TABLE refresh_tokens (
+    digest VARCHAR(64) PRIMARY KEY,
+    username VARCHAR(256) NOT NULL,
+    family VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE
+);
+CREATE INDEX refresh_tokens_family_idx ON refresh_tokens (family);
+CREATE INDEX refresh_tokens_expires_at_idx ON refresh_tokens (expires_at);
+
+--changeset alishersharipov:add updated_at to "flights" table
+
+ALTER TABLE flights ADD COLUMN updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+CREATE INDEX flights_updated_at_idx ON flights (updated_at);
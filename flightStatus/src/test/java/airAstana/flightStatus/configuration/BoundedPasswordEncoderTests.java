@@ -0,0 +1,82 @@
+package airAstana.flightStatus.configuration;
+
+import airAstana.flightStatus.exception.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BoundedPasswordEncoderTests {
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        if (passwordEncoder != null) {
+            passwordEncoder.close();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatches_DelegatedToPool() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4);
+
+        String encoded = passwordEncoder.encode("password123");
+
+        assertTrue(passwordEncoder.matches("password123", encoded));
+        assertFalse(passwordEncoder.matches("password124", encoded));
+        assertEquals(3, passwordEncoder.getCompleted());
+        assertEquals(0, passwordEncoder.getRejected());
+    }
+
+    @Test
+    void testMatches_QueueFull_RejectedImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "b"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "b"));
+        while (passwordEncoder.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingBusyException.class, () -> passwordEncoder.matches("a", "b"));
+        assertEquals(1, passwordEncoder.getRejected());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testEncode_DelegateFails_ExceptionPropagated() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenThrow(new IllegalArgumentException("rawPassword cannot be null"));
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder.encode(null));
+    }
+
+    @Test
+    void testCalibrateBCryptStrength_NeverBelowDefault() {
+        int strength = BoundedPasswordEncoder.calibrateBCryptStrength(1);
+
+        assertEquals(10, strength);
+    }
+}
@@ -0,0 +1,143 @@
+package airAstana.flightStatus.configuration;
+
+import airAstana.flightStatus.exception.PasswordHashingBusyException;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.repository.FlightRepository;
+import airAstana.flightStatus.service.FlightService;
+import airAstana.flightStatus.service.TimeZoneService;
+import airAstana.flightStatus.service.impl.CityDictionaryServiceImpl;
+import airAstana.flightStatus.service.impl.FlightIndexServiceImpl;
+import airAstana.flightStatus.service.impl.FlightServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * floods a pool of request threads, sized like the default Tomcat pool, with logins and registrations while timing
+ * arrivals reads served from the flight index on the same pool. compares hashing on the request threads with hashing
+ * on the bounded executor, sized like the default of half the processors. excluded from the default build,
+ * run with: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+public class PasswordHashingBenchmarkTests {
+
+    private static final int REQUEST_THREADS = 200;
+
+    private static final int READS = 500;
+
+    private static final int LOGINS_PER_READ = 2;
+
+    private static final long READ_INTERVAL_MICROS = 5000;
+
+    private static final int BCRYPT_STRENGTH = 10;
+
+    private static final String[] CITIES = {"Almaty", "Astana", "Shymkent", "Aktau", "Atyrau", "Dubai", "Istanbul", "Tbilisi"};
+
+    @Test
+    void testLoginFlood_BoundedHashingKeepsArrivalsLatencyLow() throws Exception {
+        FlightService flightService = flightService();
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(BCRYPT_STRENGTH);
+        String hash = bcrypt.encode("password123");
+        run(flightService, bcrypt, hash);
+
+        Result unbounded = run(flightService, bcrypt, hash);
+        Result bounded;
+        try (BoundedPasswordEncoder boundedEncoder = new BoundedPasswordEncoder(bcrypt,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64)) {
+            bounded = run(flightService, boundedEncoder, hash);
+        }
+
+        System.out.printf("hashing on request threads: arrivals p50 %.1f ms, p99 %.1f ms, %d logins hashed, %d rejected%n",
+                unbounded.p50Millis(), unbounded.p99Millis(), unbounded.hashed(), unbounded.rejected());
+        System.out.printf("bounded hashing executor: arrivals p50 %.1f ms, p99 %.1f ms, %d logins hashed, %d rejected%n",
+                bounded.p50Millis(), bounded.p99Millis(), bounded.hashed(), bounded.rejected());
+        assertTrue(bounded.p99Millis() < unbounded.p99Millis());
+    }
+
+    private record Result(double p50Millis, double p99Millis, int hashed, int rejected) {
+    }
+
+    /**
+     * submits READS arrivals reads at a steady rate, each timed from submission to completion, and before every read
+     * LOGINS_PER_READ logins and registrations, alternating between checking and encoding a password.
+     */
+    private Result run(FlightService flightService, PasswordEncoder passwordEncoder, String hash) throws Exception {
+        AtomicInteger hashed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<Long>> latencies = new ArrayList<>(READS);
+
+        try (ExecutorService requestExecutor = Executors.newFixedThreadPool(REQUEST_THREADS)) {
+            for (int i = 0; i < READS; i++) {
+                for (int j = 0; j < LOGINS_PER_READ; j++) {
+                    boolean register = j % 2 == 0;
+                    requestExecutor.submit(() -> {
+                        try {
+                            if (register) {
+                                passwordEncoder.encode("password123");
+                            } else {
+                                passwordEncoder.matches("password123", hash);
+                            }
+                            hashed.incrementAndGet();
+                        } catch (PasswordHashingBusyException e) {
+                            rejected.incrementAndGet();
+                        }
+                    });
+                }
+                String origin = CITIES[i % CITIES.length];
+                long submitted = System.nanoTime();
+                latencies.add(requestExecutor.submit(() -> {
+                    assertFalse(flightService.getFlights(origin, null, null, null).getFlights().isEmpty());
+                    return System.nanoTime() - submitted;
+                }));
+                TimeUnit.MICROSECONDS.sleep(READ_INTERVAL_MICROS);
+            }
+        }
+
+        List<Long> sorted = new ArrayList<>(READS);
+        for (Future<Long> latency : latencies) {
+            sorted.add(latency.get());
+        }
+        sorted.sort(null);
+        return new Result(percentileMillis(sorted, 0.5), percentileMillis(sorted, 0.99), hashed.get(), rejected.get());
+    }
+
+    private static double percentileMillis(List<Long> sorted, double percentile) {
+        return sorted.get((int) Math.ceil(sorted.size() * percentile) - 1) / 1_000_000.0;
+    }
+
+    /**
+     * builds the arrivals read path over a loaded flight index holding flights between the cities.
+     */
+    private static FlightService flightService() {
+        OffsetDateTime departure = OffsetDateTime.of(2024, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            flights.add(new Flight((long) i, CITIES[i % CITIES.length], CITIES[(i / CITIES.length + i + 1) % CITIES.length],
+                    departure.plusMinutes(i), departure.plusMinutes(i + 90L), Status.INTIME, departure));
+        }
+        FlightRepository flightRepository = mock(FlightRepository.class);
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(flights);
+
+        FlightIndexServiceImpl flightIndexService = new FlightIndexServiceImpl(flightRepository,
+                new CityDictionaryServiceImpl(10000), true, Long.MAX_VALUE);
+        flightIndexService.load();
+        return new FlightServiceImpl(flightRepository, mock(TimeZoneService.class), flightIndexService,
+                mock(ApplicationEventPublisher.class));
+    }
+}
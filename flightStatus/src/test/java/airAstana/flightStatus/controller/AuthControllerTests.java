@@ -1,8 +1,11 @@
 package airAstana.flightStatus.controller;
 
+import airAstana.flightStatus.exception.InvalidRefreshTokenException;
+import airAstana.flightStatus.exception.PasswordHashingBusyException;
 import airAstana.flightStatus.exception.UsernameTakenException;
 import airAstana.flightStatus.model.User;
 import airAstana.flightStatus.model.dto.JwtAuthResponse;
+import airAstana.flightStatus.model.dto.RefreshTokenRequest;
 import airAstana.flightStatus.model.dto.RegisterLoginRequest;
 import airAstana.flightStatus.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -104,6 +107,43 @@ public class AuthControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void testLogin_PasswordHashingBusy_ReturnsServiceUnavailable() throws Exception {
+        RegisterLoginRequest request = new RegisterLoginRequest("user", "password");
+
+        when(authService.login(any(RegisterLoginRequest.class))).thenThrow(new PasswordHashingBusyException("busy"));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void testRefresh_ReusedRefreshToken_ReturnsUnauthorized() throws Exception {
+        when(authService.refresh(any(RefreshTokenRequest.class))).thenThrow(new InvalidRefreshTokenException("Refresh token was already used"));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("used"))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testLogout_TokenRevoked() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/logout")
+                        .header("Authorization", "Bearer token"))
+                .andExpect(status().isNoContent());
+
+        verify(authService).logout("token", null);
+    }
+
     @Test
     public void testGetAdmin_Success() throws Exception {
         mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
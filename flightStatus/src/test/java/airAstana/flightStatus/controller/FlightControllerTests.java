@@ -1,11 +1,27 @@
 package airAstana.flightStatus.controller;
 
+import airAstana.flightStatus.exception.ChangeSequenceExpiredException;
 import airAstana.flightStatus.exception.FlightWithIdNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginAndDestinationNotFoundException;
+import airAstana.flightStatus.exception.TimeZoneServiceUnavailableException;
 import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightCreationState;
+import airAstana.flightStatus.model.FlightUpdateOutcome;
 import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightChanges;
+import airAstana.flightStatus.model.dto.FlightBulkStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightCreationStatus;
 import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.model.dto.FlightPage;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateResult;
+import airAstana.flightStatus.service.FlightChangeLogService;
+import airAstana.flightStatus.service.FlightExportService;
 import airAstana.flightStatus.service.FlightService;
+import airAstana.flightStatus.service.FlightCreationPipelineService;
+import airAstana.flightStatus.service.FlightImportService;
+import airAstana.flightStatus.service.FlightStatusStreamService;
+import airAstana.flightStatus.service.FlightVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +30,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.OffsetDateTime;
 import java.util.Collections;
@@ -21,7 +38,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class FlightControllerTests {
@@ -29,6 +46,24 @@ class FlightControllerTests {
     @Mock
     private FlightService flightService;
 
+    @Mock
+    private FlightExportService flightExportService;
+
+    @Mock
+    private FlightVersionService flightVersionService;
+
+    @Mock
+    private FlightChangeLogService flightChangeLogService;
+
+    @Mock
+    private FlightStatusStreamService flightStatusStreamService;
+
+    @Mock
+    private FlightImportService flightImportService;
+
+    @Mock
+    private FlightCreationPipelineService flightCreationPipelineService;
+
     @InjectMocks
     private FlightController flightController;
 
@@ -51,6 +86,8 @@ class FlightControllerTests {
         testFlight.setDeparture(OffsetDateTime.now());
         testFlight.setArrival(OffsetDateTime.now().plusHours(2));
         testFlight.setStatus(Status.INTIME);
+
+        lenient().when(flightVersionService.getETag(any(), any(), any(), any())).thenReturn("\"v1\"");
     }
 
     @Test
@@ -74,11 +111,38 @@ class FlightControllerTests {
         assertNull(response.getBody());
     }
 
+    @Test
+    void testAddFlight_TimeZoneServiceUnavailable_ReturnsServiceUnavailable() {
+        when(flightService.addFlight(any(FlightDto.class))).thenThrow(new TimeZoneServiceUnavailableException("Time zone API circuit breaker is open"));
+
+        ResponseEntity<Flight> response = flightController.addFlight(testFlightDto);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void testSubmitFlight_ReturnsAcceptedWithTrackingLocation() {
+        when(flightCreationPipelineService.submit(testFlightDto)).thenReturn(new FlightCreationStatus("abc", FlightCreationState.QUEUED, null, null));
+
+        ResponseEntity<FlightCreationStatus> response = flightController.submitFlight(testFlightDto);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/flights/add/abc", response.getHeaders().getLocation().toString());
+        assertEquals("abc", response.getBody().getTrackingId());
+    }
+
+    @Test
+    void testGetFlightCreationStatus_UnknownTrackingId_ReturnsNotFound() {
+        ResponseEntity<FlightCreationStatus> response = flightController.getFlightCreationStatus("unknown");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     @Test
     void testGetFlights_WithOriginAndDestination_Success() {
-        when(flightService.getFlights(eq("Origin"), eq("Destination"))).thenReturn(Collections.singletonList(testFlight));
+        when(flightService.getFlights(eq("Origin"), eq("Destination"), isNull(), isNull())).thenReturn(new FlightPage(Collections.singletonList(testFlight), null));
 
-        ResponseEntity<List<Flight>> response = flightController.getFlights("Origin", "Destination");
+        ResponseEntity<List<Flight>> response = flightController.getFlights("Origin", "Destination", null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -87,9 +151,9 @@ class FlightControllerTests {
 
     @Test
     void testGetFlights_WithOrigin_Success() {
-        when(flightService.getFlights(eq("Origin"), isNull())).thenReturn(Collections.singletonList(testFlight));
+        when(flightService.getFlights(eq("Origin"), isNull(), isNull(), isNull())).thenReturn(new FlightPage(Collections.singletonList(testFlight), null));
 
-        ResponseEntity<List<Flight>> response = flightController.getFlights("Origin", null);
+        ResponseEntity<List<Flight>> response = flightController.getFlights("Origin", null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -98,9 +162,9 @@ class FlightControllerTests {
 
     @Test
     void testGetFlights_WithDestination_Success() {
-        when(flightService.getFlights(isNull(), eq("Destination"))).thenReturn(Collections.singletonList(testFlight));
+        when(flightService.getFlights(isNull(), eq("Destination"), isNull(), isNull())).thenReturn(new FlightPage(Collections.singletonList(testFlight), null));
 
-        ResponseEntity<List<Flight>> response = flightController.getFlights(null, "Destination");
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, "Destination", null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(1, response.getBody().size());
@@ -109,14 +173,105 @@ class FlightControllerTests {
 
     @Test
     void testGetFlights_NoFlightsFound_ReturnsNotFound() {
-        when(flightService.getFlights(anyString(), anyString())).thenThrow(FlightsWithOriginAndDestinationNotFoundException.class);
+        when(flightService.getFlights(anyString(), anyString(), isNull(), isNull())).thenThrow(FlightsWithOriginAndDestinationNotFoundException.class);
 
-        ResponseEntity<List<Flight>> response = flightController.getFlights("Origin", "Destination");
+        ResponseEntity<List<Flight>> response = flightController.getFlights("Origin", "Destination", null, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
 
+    @Test
+    void testGetFlights_MoreFlights_NextCursorHeaderReturned() {
+        when(flightService.getFlights(isNull(), isNull(), isNull(), eq(1))).thenReturn(new FlightPage(Collections.singletonList(testFlight), "next"));
+
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, null, null, 1, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("next", response.getHeaders().getFirst(FlightController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetFlights_InvalidCursor_ReturnsBadRequest() {
+        when(flightService.getFlights(isNull(), isNull(), eq("bad"), isNull())).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, null, "bad", null, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testGetFlights_ETagReturned() {
+        when(flightService.getFlights(isNull(), isNull(), isNull(), isNull())).thenReturn(new FlightPage(Collections.singletonList(testFlight), null));
+
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetFlights_VersionChangedDuringRead_ETagOmitted() {
+        when(flightVersionService.getETag(isNull(), isNull(), isNull(), isNull())).thenReturn("\"v1\"", "\"v2\"");
+        when(flightService.getFlights(isNull(), isNull(), isNull(), isNull())).thenReturn(new FlightPage(Collections.singletonList(testFlight), null));
+
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getETag());
+        assertEquals(Collections.singletonList(testFlight), response.getBody());
+    }
+
+    @Test
+    void testGetFlights_MatchingIfNoneMatch_ReturnsNotModifiedWithoutQuerying() {
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, null, null, null, "\"v0\", \"v1\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testGetFlights_InvalidCityWithMatchingIfNoneMatch_ReturnsBadRequest() {
+        when(flightVersionService.getETag(eq("Almaty1"), isNull(), isNull(), isNull())).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<List<Flight>> response = flightController.getFlights("Almaty1", null, null, null, "*");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testGetFlights_NoETag_IfNoneMatchIgnored() {
+        when(flightVersionService.getETag(isNull(), isNull(), isNull(), isNull())).thenReturn(null);
+        when(flightService.getFlights(isNull(), isNull(), isNull(), isNull())).thenReturn(new FlightPage(Collections.singletonList(testFlight), null));
+
+        ResponseEntity<List<Flight>> response = flightController.getFlights(null, null, null, null, "*");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetChanges_Success() {
+        FlightChanges changes = new FlightChanges(Collections.emptyList(), 42L, false);
+        when(flightChangeLogService.getChanges(42L, null)).thenReturn(changes);
+
+        ResponseEntity<FlightChanges> response = flightController.getChanges(42L, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(changes, response.getBody());
+    }
+
+    @Test
+    void testGetChanges_ExpiredSequence_ReturnsGone() {
+        when(flightChangeLogService.getChanges(1L, null)).thenThrow(ChangeSequenceExpiredException.class);
+
+        ResponseEntity<FlightChanges> response = flightController.getChanges(1L, null);
+
+        assertEquals(HttpStatus.GONE, response.getStatusCode());
+    }
+
     @Test
     void testUpdateFlightStatus_Success() {
         when(flightService.updateFlightStatus(eq(1L), any(Status.class))).thenReturn(testFlight);
@@ -136,4 +291,37 @@ class FlightControllerTests {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
+
+    @Test
+    void testUpdateFlightStatuses_Success() {
+        FlightBulkStatusUpdateDto bulkStatusUpdateDto = new FlightBulkStatusUpdateDto(
+                List.of(new FlightStatusUpdateDto(1L, Status.DELAYED)), null, null, null, null);
+        List<FlightStatusUpdateResult> results = List.of(
+                new FlightStatusUpdateResult(1L, FlightUpdateOutcome.UPDATED, Status.INTIME, Status.DELAYED));
+        when(flightService.updateFlightStatuses(bulkStatusUpdateDto)).thenReturn(results);
+
+        ResponseEntity<List<FlightStatusUpdateResult>> response = flightController.updateFlightStatuses(bulkStatusUpdateDto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void testUpdateFlightStatuses_InvalidInput_ReturnsBadRequest() {
+        FlightBulkStatusUpdateDto bulkStatusUpdateDto = new FlightBulkStatusUpdateDto();
+        when(flightService.updateFlightStatuses(bulkStatusUpdateDto)).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<List<FlightStatusUpdateResult>> response = flightController.updateFlightStatuses(bulkStatusUpdateDto);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testStreamFlightStatus_InvalidCity_ReturnsBadRequest() {
+        when(flightStatusStreamService.subscribe("Almaty1", null)).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<SseEmitter> response = flightController.streamFlightStatus("Almaty1", null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 }
@@ -1,22 +1,33 @@
 package airAstana.flightStatus.service.impl;
 
+import airAstana.flightStatus.exception.InvalidRefreshTokenException;
 import airAstana.flightStatus.exception.UsernameTakenException;
 import airAstana.flightStatus.model.EnumRole;
 import airAstana.flightStatus.model.Role;
 import airAstana.flightStatus.model.User;
 import airAstana.flightStatus.model.dto.JwtAuthResponse;
+import airAstana.flightStatus.model.dto.RefreshTokenRequest;
+import airAstana.flightStatus.model.dto.RefreshTokenRotation;
+import airAstana.flightStatus.model.dto.VerifiedToken;
 import airAstana.flightStatus.model.dto.RegisterLoginRequest;
 import airAstana.flightStatus.repository.RoleRepository;
 import airAstana.flightStatus.repository.UserRepository;
 import airAstana.flightStatus.service.JwtService;
+import airAstana.flightStatus.service.RefreshTokenService;
+import airAstana.flightStatus.service.TokenRevocationService;
+import airAstana.flightStatus.service.TokenVersionService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,6 +50,15 @@ public class AuthServiceImplTests {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -47,6 +67,11 @@ public class AuthServiceImplTests {
         MockitoAnnotations.openMocks(this);
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void testRegister_NewUser_Success() {
         RegisterLoginRequest request = new RegisterLoginRequest("newuser", "password123");
@@ -83,13 +108,58 @@ public class AuthServiceImplTests {
         RegisterLoginRequest request = new RegisterLoginRequest("existingUser", "password123");
 
         User existingUser = new User(request.getUsername(), "encodedPassword");
-        when(userRepository.findByUsernameIgnoreCase(request.getUsername())).thenReturn(Optional.of(existingUser));
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(existingUser, null, List.of()));
         when(jwtService.generateToken(existingUser)).thenReturn("generatedToken");
+        when(refreshTokenService.issue("existingUser")).thenReturn("refreshToken");
 
         JwtAuthResponse response = authService.login(request);
 
         assertNotNull(response);
         assertEquals("generatedToken", response.getToken());
+        assertEquals("refreshToken", response.getRefreshToken());
+        verify(userRepository, never()).findByUsernameIgnoreCase(any());
+    }
+
+    @Test
+    void testRefresh_ValidRefreshToken_NewTokensWithoutPasswordCheck() {
+        User existingUser = new User("existingUser", "encodedPassword");
+        when(refreshTokenService.rotate("refreshToken")).thenReturn(new RefreshTokenRotation("existingUser", "nextRefreshToken"));
+        when(userRepository.findByUsernameIgnoreCase("existingUser")).thenReturn(Optional.of(existingUser));
+        when(jwtService.generateToken(existingUser)).thenReturn("generatedToken");
+
+        JwtAuthResponse response = authService.refresh(new RefreshTokenRequest("refreshToken"));
+
+        assertEquals("generatedToken", response.getToken());
+        assertEquals("nextRefreshToken", response.getRefreshToken());
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
+    @Test
+    void testLogout_TokenAndRefreshTokenRevoked() {
+        when(jwtService.verifyToken("token")).thenReturn(new VerifiedToken("jti", "existingUser", List.of(), 1000L, 0L));
+
+        authService.logout("token", new RefreshTokenRequest("refreshToken"));
+
+        verify(tokenRevocationService, times(1)).revoke("jti", 1000L);
+        verify(refreshTokenService, times(1)).revoke("refreshToken", "existingUser");
+    }
+
+    @Test
+    void testLogout_InvalidToken_RefreshTokenNotRevoked() {
+        when(jwtService.verifyToken("token")).thenReturn(null);
+
+        authService.logout("token", new RefreshTokenRequest("refreshToken"));
+
+        verifyNoInteractions(tokenRevocationService, refreshTokenService);
+    }
+
+    @Test
+    void testRefresh_UserDeleted_ExceptionThrown() {
+        when(refreshTokenService.rotate("refreshToken")).thenReturn(new RefreshTokenRotation("deletedUser", "nextRefreshToken"));
+        when(userRepository.findByUsernameIgnoreCase("deletedUser")).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh(new RefreshTokenRequest("refreshToken")));
     }
 
     @Test
@@ -100,4 +170,20 @@ public class AuthServiceImplTests {
 
         assertThrows(IllegalArgumentException.class, () -> authService.login(request));
     }
+
+    @Test
+    void testGetAdmin_TokenVersionIncremented() {
+        User user = new User("existingUser", "encodedPassword");
+        user.setRole(new Role(EnumRole.USER));
+        Role adminRole = new Role(EnumRole.ADMIN);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("existingUser", null));
+        when(userRepository.findByUsernameIgnoreCase("existingUser")).thenReturn(Optional.of(user));
+        when(roleRepository.findByName(EnumRole.ADMIN)).thenReturn(Optional.of(adminRole));
+
+        authService.getAdmin();
+
+        assertEquals(adminRole, user.getRole());
+        verify(tokenVersionService, times(1)).incrementTokenVersion(user);
+        verify(userRepository, times(1)).save(user);
+    }
 }
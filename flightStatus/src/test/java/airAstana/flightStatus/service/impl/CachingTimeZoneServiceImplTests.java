@@ -0,0 +1,172 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.service.TimeZoneService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingTimeZoneServiceImplTests {
+
+    @Mock
+    private TimeZoneService delegate;
+
+    @Mock
+    private Clock clock;
+
+    private CachingTimeZoneServiceImpl timeZoneService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        timeZoneService = new CachingTimeZoneServiceImpl(delegate, 2, 1000, 100, "", clock);
+    }
+
+    @Test
+    void testGetCoordinates_RepeatedCity_DelegatedOnce() {
+        when(delegate.getCoordinates("Almaty")).thenReturn(new double[]{43.2, 76.9});
+
+        timeZoneService.getCoordinates("Almaty");
+        double[] coordinates = timeZoneService.getCoordinates("ALMATY");
+
+        assertArrayEquals(new double[]{43.2, 76.9}, coordinates);
+        verify(delegate, times(1)).getCoordinates(anyString());
+        assertEquals(1, timeZoneService.getHits());
+        assertEquals(1, timeZoneService.getMisses());
+    }
+
+    @Test
+    void testGetZoneId_Expired_DelegatedAgain() {
+        when(delegate.getZoneId("Almaty")).thenReturn(ZoneId.of("Asia/Almaty"));
+
+        timeZoneService.getZoneId("Almaty");
+        when(clock.millis()).thenReturn(1000L);
+        timeZoneService.getZoneId("Almaty");
+
+        verify(delegate, times(2)).getZoneId("Almaty");
+    }
+
+    @Test
+    void testGetZoneId_InvalidCity_CachedForNegativeTtl() {
+        when(delegate.getZoneId("Nowhere")).thenThrow(new InvalidCityException("Invalid city specified: Nowhere"));
+
+        assertThrows(InvalidCityException.class, () -> timeZoneService.getZoneId("Nowhere"));
+        assertThrows(InvalidCityException.class, () -> timeZoneService.getZoneId("Nowhere"));
+        verify(delegate, times(1)).getZoneId("Nowhere");
+
+        when(clock.millis()).thenReturn(100L);
+        assertThrows(InvalidCityException.class, () -> timeZoneService.getZoneId("Nowhere"));
+        verify(delegate, times(2)).getZoneId("Nowhere");
+    }
+
+    @Test
+    void testGetZoneId_CacheFull_LeastRecentlyUsedEvicted() {
+        when(delegate.getZoneId(anyString())).thenReturn(ZoneId.of("Asia/Almaty"));
+
+        timeZoneService.getZoneId("Almaty");
+        timeZoneService.getZoneId("Astana");
+        timeZoneService.getZoneId("Almaty");
+        timeZoneService.getZoneId("Shymkent");
+        timeZoneService.getZoneId("Almaty");
+        timeZoneService.getZoneId("Astana");
+
+        assertEquals(2, timeZoneService.getEvictions());
+        verify(delegate, times(1)).getZoneId("Almaty");
+        verify(delegate, times(2)).getZoneId("Astana");
+    }
+
+    @Test
+    void testSave_CacheFile_LoadedAfterRestart(@TempDir Path directory) {
+        String cacheFile = directory.resolve("timezones.cache").toString();
+        when(delegate.getZoneId("Almaty")).thenReturn(ZoneId.of("Asia/Almaty"));
+        when(delegate.getCoordinates("Almaty")).thenReturn(new double[]{43.2, 76.9});
+
+        CachingTimeZoneServiceImpl beforeRestart = new CachingTimeZoneServiceImpl(delegate, 10, 1000, 100, cacheFile, clock);
+        beforeRestart.getZoneId("Almaty");
+        beforeRestart.getCoordinates("Almaty");
+        beforeRestart.save();
+
+        CachingTimeZoneServiceImpl afterRestart = new CachingTimeZoneServiceImpl(delegate, 10, 1000, 100, cacheFile, clock);
+
+        assertEquals(ZoneId.of("Asia/Almaty"), afterRestart.getZoneId("Almaty"));
+        assertArrayEquals(new double[]{43.2, 76.9}, afterRestart.getCoordinates("Almaty"));
+        assertEquals(0, afterRestart.getMisses());
+        verify(delegate, times(1)).getZoneId("Almaty");
+    }
+
+    @Test
+    void testGetZoneIdAsync_CachedAfterCompletion() {
+        when(delegate.getZoneIdAsync("Almaty")).thenReturn(CompletableFuture.completedFuture(ZoneId.of("Asia/Almaty")));
+
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneIdAsync("Almaty").join());
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneIdAsync("almaty").join());
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneId("Almaty"));
+
+        verify(delegate, times(1)).getZoneIdAsync("Almaty");
+        verify(delegate, never()).getZoneId(anyString());
+    }
+
+    @Test
+    void testGetZoneIdAsync_ConcurrentLookups_ShareOneLoad() {
+        CompletableFuture<ZoneId> load = new CompletableFuture<>();
+        when(delegate.getZoneIdAsync(anyString())).thenReturn(load);
+
+        List<CompletableFuture<ZoneId>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lookups.add(timeZoneService.getZoneIdAsync(i % 2 == 0 ? "Almaty" : "ALMATY"));
+        }
+        load.complete(ZoneId.of("Asia/Almaty"));
+
+        lookups.forEach(lookup -> assertEquals(ZoneId.of("Asia/Almaty"), lookup.join()));
+        verify(delegate, times(1)).getZoneIdAsync(anyString());
+        assertEquals(9, timeZoneService.getCoalesced());
+    }
+
+    @Test
+    void testGetCoordinates_ConcurrentCallers_OneUpstreamCall() throws Exception {
+        int callers = 64;
+        try (GoogleMapsStubServer stubServer = new GoogleMapsStubServer().withCity("Almaty", 43.2, 76.9, "Asia/Almaty")) {
+            stubServer.setLatencyMillis(200);
+            TimeZoneServiceImpl google = new TimeZoneServiceImpl(HttpClient.newHttpClient(), "key", stubServer.getBaseUrl(), 5000, 5000, 16, 5, 30000);
+            CachingTimeZoneServiceImpl cachingService = new CachingTimeZoneServiceImpl(google, 100, 60000, 1000, "", Clock.systemUTC());
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<double[]>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+                for (int i = 0; i < callers; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return cachingService.getCoordinates("Almaty");
+                    }));
+                }
+                start.countDown();
+
+                for (Future<double[]> result : results) {
+                    assertArrayEquals(new double[]{43.2, 76.9}, result.get(10, TimeUnit.SECONDS));
+                }
+            }
+
+            assertEquals(1, stubServer.getGeocodeRequests());
+            assertEquals(1, cachingService.getMisses());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.service.CityDictionaryService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CityDictionaryServiceImplTests {
+
+    private final CityDictionaryServiceImpl cityDictionaryService = new CityDictionaryServiceImpl(2);
+
+    @Test
+    void testIntern_DifferentCase_SameId() {
+        int id = cityDictionaryService.intern("Aktobe");
+
+        assertEquals(id, cityDictionaryService.intern("AKTOBE"));
+        assertEquals(id, cityDictionaryService.intern("aktobe"));
+        assertNotEquals(id, cityDictionaryService.intern("Atyrau"));
+        assertEquals(2, cityDictionaryService.size());
+    }
+
+    @Test
+    void testFind_UnknownCity_DoesNotIntern() {
+        assertEquals(CityDictionaryService.UNKNOWN, cityDictionaryService.find("Kokshetau"));
+        assertEquals(0, cityDictionaryService.size());
+    }
+
+    @Test
+    void testFind_NewSpellingOfKnownCity_ReturnsId() {
+        int id = cityDictionaryService.intern("Pavlodar");
+
+        assertEquals(id, cityDictionaryService.find("pAvLoDaR"));
+    }
+
+    @Test
+    void testCanonical_EqualSpelling_ReturnsSameInstance() {
+        String first = cityDictionaryService.canonical(new String("Taraz"));
+        String second = cityDictionaryService.canonical(new String("Taraz"));
+
+        assertSame(first, second);
+        assertEquals("Taraz", first);
+        assertEquals("TARAZ", cityDictionaryService.canonical("TARAZ"));
+    }
+
+    @Test
+    void testCanonical_MaxSpellingsReached_SpellingNotSharedButIdKept() {
+        int id = cityDictionaryService.intern("Semey");
+        cityDictionaryService.canonical("SEMEY");
+
+        String spelling = new String("SeMeY");
+        assertSame(spelling, cityDictionaryService.canonical(spelling));
+        assertNotSame(spelling, cityDictionaryService.canonical(new String("SeMeY")));
+        assertEquals(id, cityDictionaryService.intern("SeMeY"));
+        assertEquals(id, cityDictionaryService.find("SeMeY"));
+        assertEquals(1, cityDictionaryService.size());
+    }
+
+    @Test
+    void testKeyOf_UnknownCity_ReturnsNone() {
+        cityDictionaryService.intern("Kyzylorda");
+
+        assertEquals(FlightRouteKeys.NONE, FlightRouteKeys.keyOf(cityDictionaryService, "kyzylorda", "Zhezkazgan"));
+        assertEquals(FlightRouteKeys.ALL, FlightRouteKeys.keyOf(cityDictionaryService, null, null));
+        assertNotEquals(FlightRouteKeys.keyOf(cityDictionaryService, "Kyzylorda", null),
+                FlightRouteKeys.keyOf(cityDictionaryService, null, "Kyzylorda"));
+    }
+}
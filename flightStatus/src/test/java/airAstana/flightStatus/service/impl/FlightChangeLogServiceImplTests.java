@@ -0,0 +1,57 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.exception.ChangeSequenceExpiredException;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightChangeType;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightChanges;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightChangeLogServiceImplTests {
+
+    private final Flight flight = new Flight(1L, "Almaty", "Astana", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.INTIME);
+
+    @Test
+    void testGetChanges_AfterSequence_ReturnsBatchesInOrder() {
+        FlightChangeLogServiceImpl changeLog = new FlightChangeLogServiceImpl(10);
+        long start = changeLog.getChanges(null, null).getLastSequence();
+
+        changeLog.onFlightChanged(new FlightChangedEvent(flight, null));
+        flight.setStatus(Status.DELAYED);
+        changeLog.onFlightChanged(new FlightChangedEvent(flight, Status.INTIME));
+        flight.setStatus(Status.CANCELLED);
+        changeLog.onFlightChanged(new FlightChangedEvent(flight, Status.DELAYED));
+
+        FlightChanges first = changeLog.getChanges(start, 2);
+        assertEquals(2, first.getChanges().size());
+        assertEquals(FlightChangeType.CREATED, first.getChanges().get(0).getType());
+        assertEquals(Status.DELAYED, first.getChanges().get(1).getFlight().getStatus());
+        assertTrue(first.isHasMore());
+
+        FlightChanges second = changeLog.getChanges(first.getLastSequence(), 2);
+        assertEquals(1, second.getChanges().size());
+        assertEquals(Status.CANCELLED, second.getChanges().get(0).getFlight().getStatus());
+        assertFalse(second.isHasMore());
+
+        assertTrue(changeLog.getChanges(second.getLastSequence(), null).getChanges().isEmpty());
+    }
+
+    @Test
+    void testGetChanges_SequenceNoLongerRetained_ExceptionThrown() {
+        FlightChangeLogServiceImpl changeLog = new FlightChangeLogServiceImpl(2);
+        long start = changeLog.getChanges(null, null).getLastSequence();
+
+        for (int i = 0; i < 3; i++) {
+            changeLog.onFlightChanged(new FlightChangedEvent(flight, null));
+        }
+
+        assertThrows(ChangeSequenceExpiredException.class, () -> changeLog.getChanges(start, null));
+        assertEquals(2, changeLog.getChanges(start + 1, null).getChanges().size());
+        assertThrows(ChangeSequenceExpiredException.class, () -> changeLog.getChanges(start - 1000, null));
+    }
+}
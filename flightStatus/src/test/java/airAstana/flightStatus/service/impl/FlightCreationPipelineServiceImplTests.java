@@ -0,0 +1,181 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.exception.FlightQueueFullException;
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.exception.TimeZoneServiceUnavailableException;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightCreationState;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightCreationStatus;
+import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.service.FlightService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class FlightCreationPipelineServiceImplTests {
+
+    @Mock
+    private FlightService flightService;
+
+    @Mock
+    private Clock clock;
+
+    private FlightCreationPipelineServiceImpl pipelineService;
+
+    private final OffsetDateTime departure = OffsetDateTime.parse("2024-06-01T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        pipelineService = new FlightCreationPipelineServiceImpl(flightService, 3, 10, 1000, 3, 100, 1000, clock, false);
+    }
+
+    @Test
+    void testSubmit_QueuedUntilDrained() {
+        FlightCreationStatus status = pipelineService.submit(flightDto("Almaty", "Astana"));
+
+        assertEquals(FlightCreationState.QUEUED, status.getState());
+        assertEquals(FlightCreationState.QUEUED, pipelineService.getStatus(status.getTrackingId()).getState());
+        verifyNoInteractions(flightService);
+    }
+
+    @Test
+    void testDrain_CreatesQueuedFlightsInOneBatch() {
+        FlightDto first = flightDto("Almaty", "Astana");
+        FlightDto second = flightDto("Astana", "Dubai");
+        Flight firstFlight = new Flight(1L, "Almaty", "Astana", departure, departure.plusHours(2), Status.INTIME);
+        Flight secondFlight = new Flight(2L, "Astana", "Dubai", departure, departure.plusHours(4), Status.INTIME);
+        when(flightService.addFlights(List.of(first, second))).thenReturn(List.of(firstFlight, secondFlight));
+
+        String firstId = pipelineService.submit(first).getTrackingId();
+        String secondId = pipelineService.submit(second).getTrackingId();
+
+        assertEquals(2, pipelineService.drain());
+        assertEquals(FlightCreationState.CREATED, pipelineService.getStatus(firstId).getState());
+        assertEquals(firstFlight, pipelineService.getStatus(firstId).getFlight());
+        assertEquals(secondFlight, pipelineService.getStatus(secondId).getFlight());
+        verify(flightService, times(1)).addFlights(anyList());
+        verify(flightService, never()).addFlight(any());
+    }
+
+    @Test
+    void testDrain_BatchFails_FlightsCreatedOneByOne() {
+        FlightDto valid = flightDto("Almaty", "Astana");
+        FlightDto invalid = flightDto("Almaty", "Nowhere");
+        when(flightService.addFlights(anyList())).thenThrow(new InvalidCityException("Invalid city specified: Nowhere"));
+        when(flightService.addFlight(valid)).thenReturn(new Flight(1L, "Almaty", "Astana", departure, departure.plusHours(2), Status.INTIME));
+        when(flightService.addFlight(invalid)).thenThrow(new InvalidCityException("Invalid city specified: Nowhere"));
+
+        String validId = pipelineService.submit(valid).getTrackingId();
+        String invalidId = pipelineService.submit(invalid).getTrackingId();
+        pipelineService.drain();
+
+        assertEquals(FlightCreationState.CREATED, pipelineService.getStatus(validId).getState());
+        assertEquals(FlightCreationState.FAILED, pipelineService.getStatus(invalidId).getState());
+        assertEquals("Invalid city specified: Nowhere", pipelineService.getStatus(invalidId).getError());
+    }
+
+    @Test
+    void testDrain_TimeZoneServiceUnavailable_RetriedAfterBackoff() {
+        FlightDto flightDto = flightDto("Almaty", "Astana");
+        Flight flight = new Flight(1L, "Almaty", "Astana", departure, departure.plusHours(2), Status.INTIME);
+        when(flightService.addFlights(anyList()))
+                .thenThrow(new TimeZoneServiceUnavailableException("Time zone API circuit breaker is open"))
+                .thenReturn(List.of(flight));
+
+        String trackingId = pipelineService.submit(flightDto).getTrackingId();
+        pipelineService.drain();
+
+        assertEquals(FlightCreationState.QUEUED, pipelineService.getStatus(trackingId).getState());
+        verify(flightService, never()).addFlight(any());
+
+        when(clock.millis()).thenReturn(99L);
+        assertEquals(0, pipelineService.drain());
+
+        when(clock.millis()).thenReturn(100L);
+        assertEquals(1, pipelineService.drain());
+        assertEquals(FlightCreationState.CREATED, pipelineService.getStatus(trackingId).getState());
+        assertEquals(flight, pipelineService.getStatus(trackingId).getFlight());
+    }
+
+    @Test
+    void testDrain_TimeZoneServiceUnavailable_FailedAfterMaxAttempts() {
+        when(flightService.addFlights(anyList())).thenThrow(new TimeZoneServiceUnavailableException("Time zone API circuit breaker is open"));
+
+        String trackingId = pipelineService.submit(flightDto("Almaty", "Astana")).getTrackingId();
+        pipelineService.drain();
+        when(clock.millis()).thenReturn(100L);
+        pipelineService.drain();
+        assertEquals(FlightCreationState.QUEUED, pipelineService.getStatus(trackingId).getState());
+
+        when(clock.millis()).thenReturn(300L);
+        pipelineService.drain();
+
+        assertEquals(FlightCreationState.FAILED, pipelineService.getStatus(trackingId).getState());
+        assertEquals("Time zone API circuit breaker is open", pipelineService.getStatus(trackingId).getError());
+        verify(flightService, times(3)).addFlights(anyList());
+    }
+
+    @Test
+    void testStop_QueuedFlightsCreatedAndNewFlightsRefused() {
+        FlightDto flightDto = flightDto("Almaty", "Astana");
+        Flight flight = new Flight(1L, "Almaty", "Astana", departure, departure.plusHours(2), Status.INTIME);
+        when(flightService.addFlights(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return List.of(flight);
+        });
+        FlightCreationPipelineServiceImpl runningService =
+                new FlightCreationPipelineServiceImpl(flightService, 3, 1, 1000, 3, 100, 5000, clock, true);
+
+        String firstId = runningService.submit(flightDto).getTrackingId();
+        String secondId = runningService.submit(flightDto).getTrackingId();
+        runningService.stop();
+
+        assertEquals(FlightCreationState.CREATED, runningService.getStatus(firstId).getState());
+        assertEquals(FlightCreationState.CREATED, runningService.getStatus(secondId).getState());
+        assertThrows(FlightQueueFullException.class, () -> runningService.submit(flightDto));
+    }
+
+    @Test
+    void testSubmit_InvalidFlightDto_ExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> pipelineService.submit(new FlightDto()));
+        assertEquals(0, pipelineService.drain());
+    }
+
+    @Test
+    void testSubmit_QueueFull_ExceptionThrown() {
+        for (int i = 0; i < 3; i++) {
+            pipelineService.submit(flightDto("Almaty", "Astana"));
+        }
+
+        assertThrows(FlightQueueFullException.class, () -> pipelineService.submit(flightDto("Almaty", "Astana")));
+    }
+
+    @Test
+    void testGetStatus_RetentionPassed_Expired() {
+        FlightDto flightDto = flightDto("Almaty", "Astana");
+        when(flightService.addFlights(anyList())).thenReturn(List.of(new Flight(1L, "Almaty", "Astana", departure, departure.plusHours(2), Status.INTIME)));
+        String trackingId = pipelineService.submit(flightDto).getTrackingId();
+        pipelineService.drain();
+
+        when(clock.millis()).thenReturn(1000L);
+        pipelineService.drain();
+
+        assertNull(pipelineService.getStatus(trackingId));
+    }
+
+    private FlightDto flightDto(String origin, String destination) {
+        return new FlightDto(origin, destination, departure, departure.plusHours(2), Status.INTIME);
+    }
+}
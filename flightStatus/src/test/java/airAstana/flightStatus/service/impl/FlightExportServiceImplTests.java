@@ -0,0 +1,69 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.repository.FlightRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FlightExportServiceImplTests {
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private FlightExportServiceImpl flightExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        flightExportService = new FlightExportServiceImpl(flightRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void testExportFlights_WritesOneLinePerFlightAndDetaches() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now();
+        Flight flight1 = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME);
+        Flight flight2 = new Flight(2L, "Astana", "Dubai", now, now.plusHours(4), Status.DELAYED);
+
+        when(flightRepository.streamAllOrderByArrival()).thenReturn(Stream.of(flight1, flight2));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long count = flightExportService.exportFlights(outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+        verify(entityManager).detach(flight1);
+        verify(entityManager).detach(flight2);
+    }
+
+    @Test
+    void testExportFlights_NoFlights_WritesNothing() throws Exception {
+        when(flightRepository.streamAllOrderByArrival()).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(0, flightExportService.exportFlights(outputStream));
+        assertEquals(0, outputStream.size());
+    }
+}
@@ -0,0 +1,99 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.model.dto.FlightImportResult;
+import airAstana.flightStatus.service.TimeZoneService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FlightImportServiceImplTests {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private TimeZoneService timeZoneService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private FlightImportServiceImpl flightImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        flightImportService = new FlightImportServiceImpl(dataSource, timeZoneService, eventPublisher, "");
+    }
+
+    @Test
+    void testStageRows_ConvertsValidRowsToCityTimeZones() throws Exception {
+        when(timeZoneService.getZoneId("Almaty")).thenReturn(ZoneOffset.ofHours(5));
+        when(timeZoneService.getZoneId("Dubai")).thenReturn(ZoneOffset.ofHours(4));
+
+        String csv = """
+                origin,destination,departure,arrival,status
+                Almaty,Dubai,2024-06-01T10:00:00Z,2024-06-01T13:00:00Z,intime
+                Almaty,Dubai,2024-06-02T10:00:00Z,2024-06-02T13:00:00Z,DELAYED
+                """;
+        StringWriter copyWriter = new StringWriter();
+        FlightImportResult result = new FlightImportResult();
+
+        long staged = flightImportService.stageRows(new BufferedReader(new StringReader(csv)), copyWriter, result);
+
+        assertEquals(2, staged);
+        assertEquals(2, result.getRows());
+        assertEquals(0, result.getRejected());
+        assertEquals("Almaty,Dubai,2024-06-01T10:00+05:00,2024-06-01T13:00+04:00,INTIME\n"
+                + "Almaty,Dubai,2024-06-02T10:00+05:00,2024-06-02T13:00+04:00,DELAYED\n", copyWriter.toString());
+        verify(timeZoneService, times(1)).getZoneId("Almaty");
+        verify(timeZoneService, times(1)).getZoneId("Dubai");
+    }
+
+    @Test
+    void testStageRows_RejectsInvalidRowsWithLineNumbers() throws Exception {
+        when(timeZoneService.getZoneId("Almaty")).thenReturn(ZoneOffset.ofHours(5));
+        when(timeZoneService.getZoneId("Astana")).thenReturn(ZoneOffset.ofHours(5));
+        when(timeZoneService.getZoneId("Nowhere")).thenThrow(new InvalidCityException("Invalid city: Nowhere"));
+
+        String csv = """
+                origin,destination,departure,arrival,status
+                Almaty,Astana,2024-06-01T10:00:00Z,2024-06-01T11:00:00Z,INTIME
+                Almaty,Astana,not-a-date,2024-06-01T11:00:00Z,INTIME
+                Almaty,Astana,2024-06-01T10:00:00Z,2024-06-01T11:00:00Z,LANDED
+                Almaty,Nowhere,2024-06-01T10:00:00Z,2024-06-01T11:00:00Z,INTIME
+                Almaty,Astana,2024-06-01T10:00:00Z
+                """;
+        StringWriter copyWriter = new StringWriter();
+        FlightImportResult result = new FlightImportResult();
+
+        long staged = flightImportService.stageRows(new BufferedReader(new StringReader(csv)), copyWriter, result);
+
+        assertEquals(1, staged);
+        assertEquals(5, result.getRows());
+        assertEquals(4, result.getRejected());
+        assertEquals(3, result.getRejectedRows().get(0).getLine());
+        assertEquals(4, result.getRejectedRows().get(1).getLine());
+        assertEquals(5, result.getRejectedRows().get(2).getLine());
+        assertEquals(6, result.getRejectedRows().get(3).getLine());
+    }
+
+    @Test
+    void testImportLocalFile_OutsideImportDirectory_ThrowsException() {
+        FlightImportServiceImpl service = new FlightImportServiceImpl(dataSource, timeZoneService, eventPublisher, "/tmp/imports");
+
+        assertThrows(IllegalArgumentException.class, () -> service.importLocalFile("../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> flightImportService.importLocalFile("flights.csv"));
+    }
+}
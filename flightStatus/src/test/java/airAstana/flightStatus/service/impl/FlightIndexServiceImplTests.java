@@ -0,0 +1,219 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.event.FlightRoutesChangedEvent;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightCursor;
+import airAstana.flightStatus.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FlightIndexServiceImplTests {
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private Clock clock;
+
+    private FlightIndexServiceImpl flightIndexService;
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(100_000L);
+        flightIndexService = new FlightIndexServiceImpl(flightRepository, new CityDictionaryServiceImpl(100), true, 10_000, clock);
+    }
+
+    @Test
+    void testLoad_FlightsSortedByArrival_Success() {
+        Flight late = new Flight(1L, "Almaty", "Astana", now, now.plusHours(3), Status.INTIME);
+        Flight early = new Flight(2L, "Almaty", "Dubai", now, now.plusHours(1), Status.DELAYED);
+
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(Arrays.asList(late, early));
+
+        flightIndexService.load();
+
+        assertTrue(flightIndexService.isReady());
+        assertEquals(List.of(early, late), flightIndexService.find(null, null, FlightCursor.FIRST, 10));
+        assertEquals(List.of(early, late), flightIndexService.find("ALMATY", null, FlightCursor.FIRST, 10));
+        assertEquals(List.of(late), flightIndexService.find(null, "astana", FlightCursor.FIRST, 10));
+        assertEquals(List.of(early), flightIndexService.find("almaty", "Dubai", FlightCursor.FIRST, 10));
+        assertTrue(flightIndexService.find("Astana", null, FlightCursor.FIRST, 10).isEmpty());
+    }
+
+    @Test
+    void testFind_AfterCursor_ReturnsNextFlightsUpToLimit() {
+        Flight first = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME);
+        Flight second = new Flight(2L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME);
+        Flight third = new Flight(3L, "Almaty", "Astana", now, now.plusHours(2), Status.INTIME);
+
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(Arrays.asList(first, second, third));
+        flightIndexService.load();
+
+        assertEquals(List.of(first, second), flightIndexService.find("Almaty", "Astana", FlightCursor.FIRST, 2));
+        assertEquals(List.of(third), flightIndexService.find("Almaty", "Astana", FlightCursor.after(second), 2));
+        assertTrue(flightIndexService.find("Almaty", "Astana", FlightCursor.after(third), 2).isEmpty());
+    }
+
+    @Test
+    void testLoad_Disabled_NotReady() {
+        flightIndexService = new FlightIndexServiceImpl(flightRepository, new CityDictionaryServiceImpl(100), false, 10_000, clock);
+
+        flightIndexService.load();
+
+        assertFalse(flightIndexService.isReady());
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testOnFlightChanged_CreatedAndUpdated_IndexUpdatedInPlace() {
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of());
+        flightIndexService.load();
+
+        Flight flight = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME);
+        flightIndexService.onFlightChanged(new FlightChangedEvent(flight, null));
+
+        flight.setStatus(Status.CANCELLED);
+        flightIndexService.onFlightChanged(new FlightChangedEvent(flight, Status.INTIME));
+
+        List<Flight> flights = flightIndexService.find("Almaty", "Astana", FlightCursor.FIRST, 10);
+        assertEquals(1, flights.size());
+        assertEquals(Status.CANCELLED, flights.get(0).getStatus());
+        assertEquals(1, flightIndexService.find(null, null, FlightCursor.FIRST, 10).size());
+    }
+
+    @Test
+    void testOnFlightChanged_EventFlightLeftUnchanged() {
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of());
+        flightIndexService.load();
+
+        String origin = new String("Almaty");
+        Flight flight = new Flight(1L, origin, "Astana", now, now.plusHours(1), Status.INTIME);
+        flightIndexService.onFlightChanged(new FlightChangedEvent(flight, null));
+
+        assertSame(origin, flight.getOrigin());
+        Flight indexed = flightIndexService.find("Almaty", "Astana", FlightCursor.FIRST, 10).get(0);
+        assertNotSame(flight, indexed);
+        assertEquals(flight, indexed);
+    }
+
+    @Test
+    void testFind_RefreshIntervalPassed_FlightsChangedElsewhereLoaded() {
+        Flight flight = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME, now);
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of(flight));
+        flightIndexService.load();
+
+        Flight changed = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.DELAYED, now.plusMinutes(1));
+        Flight created = new Flight(2L, "Almaty", "Astana", now, now.plusHours(2), Status.INTIME, now.plusMinutes(1));
+        when(flightRepository.findAllViewsUpdatedAfter(any())).thenReturn(List.of(changed, created));
+
+        when(clock.millis()).thenReturn(109_999L);
+        assertEquals(List.of(flight), flightIndexService.find("Almaty", "Astana", FlightCursor.FIRST, 10));
+        verify(flightRepository, never()).findAllViewsUpdatedAfter(any());
+
+        when(clock.millis()).thenReturn(110_000L);
+        assertEquals(List.of(changed, created), flightIndexService.find("Almaty", "Astana", FlightCursor.FIRST, 10));
+        verify(flightRepository, times(1)).findAllViewsUpdatedAfter(OffsetDateTime.ofInstant(Instant.ofEpochMilli(40_000L), ZoneOffset.UTC));
+    }
+
+    @Test
+    void testFind_RefreshedRowOlderThanIndexedFlight_IndexedFlightKept() {
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of());
+        flightIndexService.load();
+
+        Flight flight = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.CANCELLED, now.plusMinutes(1));
+        flightIndexService.onFlightChanged(new FlightChangedEvent(flight, Status.INTIME));
+        when(flightRepository.findAllViewsUpdatedAfter(any()))
+                .thenReturn(List.of(new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME, now)));
+
+        when(clock.millis()).thenReturn(110_000L);
+
+        assertEquals(List.of(flight), flightIndexService.find(null, null, FlightCursor.FIRST, 10));
+    }
+
+    @Test
+    void testFind_RefreshFails_IndexedFlightsReturned() {
+        Flight flight = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME, now);
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of(flight));
+        flightIndexService.load();
+        when(flightRepository.findAllViewsUpdatedAfter(any())).thenThrow(new RuntimeException("connection refused"));
+
+        when(clock.millis()).thenReturn(110_000L);
+
+        assertEquals(List.of(flight), flightIndexService.find(null, null, FlightCursor.FIRST, 10));
+    }
+
+    @Test
+    void testOnFlightRoutesChanged_FlightsOfChangeReloaded() {
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of());
+        flightIndexService.load();
+
+        Flight first = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME, now);
+        Flight second = new Flight(2L, "Almaty", "Dubai", now, now.plusHours(2), Status.INTIME, now);
+        when(flightRepository.findAllViewsUpdatedAt(now)).thenReturn(List.of(first, second));
+
+        flightIndexService.onFlightRoutesChanged(new FlightRoutesChangedEvent(now, List.of(
+                new FlightRoutesChangedEvent.Route("Almaty", "Astana"), new FlightRoutesChangedEvent.Route("Almaty", "Dubai"))));
+
+        assertEquals(List.of(first, second), flightIndexService.find("Almaty", null, FlightCursor.FIRST, 10));
+        assertEquals(List.of(second), flightIndexService.find(null, "Dubai", FlightCursor.FIRST, 10));
+    }
+
+    @Test
+    void testGetVersion_SameFlightsInOtherOrder_SameVersion() {
+        Flight first = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME, now);
+        Flight second = new Flight(2L, "Almaty", "Dubai", now, now.plusHours(2), Status.DELAYED, now);
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of(first, second));
+        flightIndexService.load();
+
+        FlightIndexServiceImpl otherNode = new FlightIndexServiceImpl(flightRepository, new CityDictionaryServiceImpl(100), true, 10_000, clock);
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of());
+        otherNode.load();
+        otherNode.onFlightChanged(new FlightChangedEvent(second, null));
+        otherNode.onFlightChanged(new FlightChangedEvent(first, null));
+
+        assertNotEquals(0, flightIndexService.getVersion(null, null));
+        assertEquals(flightIndexService.getVersion(null, null), otherNode.getVersion(null, null));
+        assertEquals(flightIndexService.getVersion("almaty", "astana"), otherNode.getVersion("Almaty", "Astana"));
+    }
+
+    @Test
+    void testGetVersion_FlightChanged_OnlyAffectedListingsChange() {
+        Flight flight = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME, now);
+        Flight other = new Flight(2L, "Dubai", "Astana", now, now.plusHours(1), Status.INTIME, now);
+        when(flightRepository.findAllViewsOrderByArrival()).thenReturn(List.of(flight, other));
+        flightIndexService.load();
+        long all = flightIndexService.getVersion(null, null);
+        long route = flightIndexService.getVersion("Almaty", "Astana");
+        long otherOrigin = flightIndexService.getVersion("Dubai", null);
+
+        Flight changed = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.DELAYED, now.plusMinutes(1));
+        flightIndexService.onFlightChanged(new FlightChangedEvent(changed, Status.INTIME));
+
+        assertNotEquals(all, flightIndexService.getVersion(null, null));
+        assertNotEquals(route, flightIndexService.getVersion("Almaty", "Astana"));
+        assertEquals(otherOrigin, flightIndexService.getVersion("Dubai", null));
+
+        long changedRoute = flightIndexService.getVersion("Almaty", "Astana");
+        flightIndexService.onFlightChanged(new FlightChangedEvent(changed, Status.INTIME));
+        assertEquals(changedRoute, flightIndexService.getVersion("Almaty", "Astana"));
+        assertEquals(0, flightIndexService.getVersion("Astana", null));
+    }
+}
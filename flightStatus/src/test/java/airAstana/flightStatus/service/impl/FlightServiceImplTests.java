@@ -1,26 +1,40 @@
 package airAstana.flightStatus.service.impl;
 
 import airAstana.flightStatus.exception.FlightWithIdNotFoundException;
+import airAstana.flightStatus.exception.InvalidCityException;
 import airAstana.flightStatus.exception.FlightsWithDestinationNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginAndDestinationNotFoundException;
 import airAstana.flightStatus.exception.FlightsWithOriginNotFoundException;
 import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.FlightUpdateOutcome;
 import airAstana.flightStatus.model.Status;
+import airAstana.flightStatus.model.dto.FlightBulkStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightCursor;
 import airAstana.flightStatus.model.dto.FlightDto;
+import airAstana.flightStatus.model.dto.FlightPage;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateDto;
+import airAstana.flightStatus.model.dto.FlightStatusUpdateResult;
+import airAstana.flightStatus.event.FlightChangedEvent;
 import airAstana.flightStatus.repository.FlightRepository;
+import airAstana.flightStatus.service.FlightIndexService;
 import airAstana.flightStatus.service.TimeZoneService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 public class FlightServiceImplTests {
@@ -31,6 +45,12 @@ public class FlightServiceImplTests {
     @Mock
     private TimeZoneService timeZoneService;
 
+    @Mock
+    private FlightIndexService flightIndexService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private FlightServiceImpl flightService;
 
@@ -45,9 +65,9 @@ public class FlightServiceImplTests {
         Flight flight2 = new Flight(1L, "Origin2", "Destination2", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.DELAYED);
         List<Flight> expectedFlights = Arrays.asList(flight1, flight2);
 
-        when(flightRepository.findAllByOrderByArrival()).thenReturn(expectedFlights);
+        when(flightRepository.findViewsAfter(any(), any(), any())).thenReturn(expectedFlights);
 
-        List<Flight> actualFlights = flightService.getFlights(null, null);
+        List<Flight> actualFlights = flightService.getFlights(null, null, null, null).getFlights();
 
         assertEquals(expectedFlights.size(), actualFlights.size());
         assertEquals(expectedFlights, actualFlights);
@@ -61,13 +81,14 @@ public class FlightServiceImplTests {
         Flight flight2 = new Flight(1L, origin, destination, OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.DELAYED);
         List<Flight> expectedFlights = Arrays.asList(flight1, flight2);
 
-        when(flightRepository.existsByOriginIgnoreCaseAndDestinationIgnoreCase(origin, destination)).thenReturn(true);
-        when(flightRepository.findByOriginIgnoreCaseAndDestinationIgnoreCaseOrderByArrival(origin, destination)).thenReturn(expectedFlights);
+        when(flightRepository.findViewsByOriginAndDestinationAfter(eq(origin), eq(destination), any(), any(), any())).thenReturn(expectedFlights);
 
-        List<Flight> actualFlights = flightService.getFlights(origin, destination);
+        List<Flight> actualFlights = flightService.getFlights(origin, destination, null, null).getFlights();
 
         assertEquals(expectedFlights.size(), actualFlights.size());
         assertEquals(expectedFlights, actualFlights);
+        verify(flightRepository, times(1)).findViewsByOriginAndDestinationAfter(eq(origin), eq(destination), any(), any(), any());
+        verifyNoMoreInteractions(flightRepository);
     }
 
     @Test
@@ -77,13 +98,14 @@ public class FlightServiceImplTests {
         Flight flight2 = new Flight(1L, origin, "Destination2", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.DELAYED);
         List<Flight> expectedFlights = Arrays.asList(flight1, flight2);
 
-        when(flightRepository.existsByOriginIgnoreCase(origin)).thenReturn(true);
-        when(flightRepository.findByOriginIgnoreCaseOrderByArrival(origin)).thenReturn(expectedFlights);
+        when(flightRepository.findViewsByOriginAfter(eq(origin), any(), any(), any())).thenReturn(expectedFlights);
 
-        List<Flight> actualFlights = flightService.getFlights(origin, null);
+        List<Flight> actualFlights = flightService.getFlights(origin, null, null, null).getFlights();
 
         assertEquals(expectedFlights.size(), actualFlights.size());
         assertEquals(expectedFlights, actualFlights);
+        verify(flightRepository, times(1)).findViewsByOriginAfter(eq(origin), any(), any(), any());
+        verifyNoMoreInteractions(flightRepository);
     }
 
     @Test
@@ -93,13 +115,14 @@ public class FlightServiceImplTests {
         Flight flight2 = new Flight(1L, "Origin2", destination, OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.DELAYED);
         List<Flight> expectedFlights = Arrays.asList(flight1, flight2);
 
-        when(flightRepository.existsByDestinationIgnoreCase(destination)).thenReturn(true);
-        when(flightRepository.findByDestinationIgnoreCaseOrderByArrival(destination)).thenReturn(expectedFlights);
+        when(flightRepository.findViewsByDestinationAfter(eq(destination), any(), any(), any())).thenReturn(expectedFlights);
 
-        List<Flight> actualFlights = flightService.getFlights(null, destination);
+        List<Flight> actualFlights = flightService.getFlights(null, destination, null, null).getFlights();
 
         assertEquals(expectedFlights.size(), actualFlights.size());
         assertEquals(expectedFlights, actualFlights);
+        verify(flightRepository, times(1)).findViewsByDestinationAfter(eq(destination), any(), any(), any());
+        verifyNoMoreInteractions(flightRepository);
     }
 
     @Test
@@ -107,27 +130,87 @@ public class FlightServiceImplTests {
         String origin = "Origin";
         String destination = "Destination";
 
-        when(flightRepository.existsByOriginIgnoreCaseAndDestinationIgnoreCase(origin, destination)).thenReturn(false);
+        when(flightRepository.findViewsByOriginAndDestinationAfter(eq(origin), eq(destination), any(), any(), any())).thenReturn(Collections.emptyList());
 
-        assertThrows(FlightsWithOriginAndDestinationNotFoundException.class, () -> flightService.getFlights(origin, destination));
+        assertThrows(FlightsWithOriginAndDestinationNotFoundException.class, () -> flightService.getFlights(origin, destination, null, null));
     }
 
     @Test
     void testGetFlights_ByOrigin_NotFound_ExceptionThrown() {
         String origin = "NonExistingOrigin";
 
-        when(flightRepository.existsByOriginIgnoreCase(origin)).thenReturn(false);
+        when(flightRepository.findViewsByOriginAfter(eq(origin), any(), any(), any())).thenReturn(Collections.emptyList());
 
-        assertThrows(FlightsWithOriginNotFoundException.class, () -> flightService.getFlights(origin, null));
+        assertThrows(FlightsWithOriginNotFoundException.class, () -> flightService.getFlights(origin, null, null, null));
     }
 
     @Test
     void testGetFlights_ByDestination_NotFound_ExceptionThrown() {
         String destination = "NonExistingDestination";
 
-        when(flightRepository.existsByDestinationIgnoreCase(destination)).thenReturn(false);
+        when(flightRepository.findViewsByDestinationAfter(eq(destination), any(), any(), any())).thenReturn(Collections.emptyList());
+
+        assertThrows(FlightsWithDestinationNotFoundException.class, () -> flightService.getFlights(null, destination, null, null));
+    }
+
+    @Test
+    void testGetFlights_IndexReady_ReadsFromIndex() {
+        String origin = "Origin";
+        Flight flight = new Flight(1L, origin, "Destination", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.INTIME);
+        List<Flight> expectedFlights = Collections.singletonList(flight);
+
+        when(flightIndexService.isReady()).thenReturn(true);
+        when(flightIndexService.find(eq(origin), isNull(), any(), anyInt())).thenReturn(expectedFlights);
+
+        List<Flight> actualFlights = flightService.getFlights(origin, null, null, null).getFlights();
+
+        assertEquals(expectedFlights, actualFlights);
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testGetFlights_IndexReady_NotFound_ExceptionThrown() {
+        String origin = "Origin";
+        String destination = "Destination";
+
+        when(flightIndexService.isReady()).thenReturn(true);
+        when(flightIndexService.find(eq(origin), eq(destination), any(), anyInt())).thenReturn(Collections.emptyList());
+
+        assertThrows(FlightsWithOriginAndDestinationNotFoundException.class, () -> flightService.getFlights(origin, destination, null, null));
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void testGetFlights_MoreFlightsThanLimit_NextCursorReturned() {
+        Flight flight1 = new Flight(1L, "Origin", "Destination", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.INTIME);
+        Flight flight2 = new Flight(2L, "Origin", "Destination", OffsetDateTime.now(), OffsetDateTime.now().plusHours(2), Status.INTIME);
+
+        when(flightIndexService.isReady()).thenReturn(true);
+        when(flightIndexService.find(isNull(), isNull(), eq(FlightCursor.FIRST), eq(2))).thenReturn(Arrays.asList(flight1, flight2));
+
+        FlightPage page = flightService.getFlights(null, null, null, 1);
+
+        assertEquals(List.of(flight1), page.getFlights());
+        assertEquals(FlightCursor.after(flight1).encode(), page.getNextCursor());
+    }
+
+    @Test
+    void testGetFlights_LastPage_NoNextCursorAndNoException() {
+        String cursor = new FlightCursor(OffsetDateTime.now(), 5L).encode();
+
+        when(flightIndexService.isReady()).thenReturn(true);
+        when(flightIndexService.find(eq("Origin"), isNull(), any(), anyInt())).thenReturn(Collections.emptyList());
 
-        assertThrows(FlightsWithDestinationNotFoundException.class, () -> flightService.getFlights(null, destination));
+        FlightPage page = flightService.getFlights("Origin", null, cursor, null);
+
+        assertTrue(page.getFlights().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetFlights_InvalidCursorOrLimit_ExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> flightService.getFlights(null, null, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class, () -> flightService.getFlights(null, null, null, 0));
     }
 
     @Test
@@ -135,7 +218,7 @@ public class FlightServiceImplTests {
         FlightDto flightDto = new FlightDto("Origin", "Destination", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.INTIME);
         Flight savedFlight = new Flight(1L, flightDto.getOrigin(), flightDto.getDestination(), flightDto.getDeparture(), flightDto.getArrival(), flightDto.getStatus());
 
-        when(timeZoneService.getZonedDateTime(any(), anyString())).thenReturn(OffsetDateTime.now());
+        when(timeZoneService.getZoneIdAsync(anyString())).thenReturn(CompletableFuture.completedFuture(ZoneOffset.UTC));
         when(flightRepository.save(any())).thenReturn(savedFlight);
 
         Flight createdFlight = flightService.addFlight(flightDto);
@@ -146,6 +229,20 @@ public class FlightServiceImplTests {
         assertEquals(flightDto.getDeparture(), createdFlight.getDeparture());
         assertEquals(flightDto.getArrival(), createdFlight.getArrival());
         assertEquals(flightDto.getStatus(), createdFlight.getStatus());
+        verify(timeZoneService, times(1)).getZoneIdAsync("Origin");
+        verify(timeZoneService, times(1)).getZoneIdAsync("Destination");
+        verify(eventPublisher, times(1)).publishEvent(any(FlightChangedEvent.class));
+    }
+
+    @Test
+    void testAddFlight_InvalidCity_ExceptionThrown() {
+        FlightDto flightDto = new FlightDto("Origin", "Nowhere", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.INTIME);
+
+        when(timeZoneService.getZoneIdAsync("Origin")).thenReturn(CompletableFuture.completedFuture(ZoneOffset.UTC));
+        when(timeZoneService.getZoneIdAsync("Nowhere")).thenReturn(CompletableFuture.failedFuture(new InvalidCityException("Invalid city specified: Nowhere")));
+
+        assertThrows(InvalidCityException.class, () -> flightService.addFlight(flightDto));
+        verify(flightRepository, never()).save(any());
     }
 
     @Test
@@ -156,6 +253,40 @@ public class FlightServiceImplTests {
         verify(flightRepository, never()).save(any());
     }
 
+    @Test
+    void testAddFlights_DistinctCitiesResolvedOnce_Success() {
+        OffsetDateTime departure = OffsetDateTime.parse("2024-06-01T10:00:00Z");
+        List<FlightDto> flightDtos = Arrays.asList(
+                new FlightDto("Almaty", "Astana", departure, departure.plusHours(2), Status.INTIME),
+                new FlightDto("ALMATY", "Astana", departure.plusHours(3), departure.plusHours(5), Status.INTIME),
+                new FlightDto("Astana", "almaty", departure.plusHours(6), departure.plusHours(8), Status.DELAYED)
+        );
+
+        when(timeZoneService.getZoneIdAsync(anyString())).thenReturn(CompletableFuture.completedFuture(ZoneOffset.ofHours(5)));
+        when(flightRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Flight> createdFlights = flightService.addFlights(flightDtos);
+
+        assertEquals(3, createdFlights.size());
+        assertEquals(OffsetDateTime.parse("2024-06-01T10:00:00+05:00"), createdFlights.get(0).getDeparture());
+        verify(timeZoneService, times(2)).getZoneIdAsync(anyString());
+        verify(flightRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(3)).publishEvent(any(FlightChangedEvent.class));
+    }
+
+    @Test
+    void testAddFlights_InvalidFlightDto_NothingSaved() {
+        List<FlightDto> flightDtos = Arrays.asList(
+                new FlightDto("Almaty", "Astana", OffsetDateTime.now(), OffsetDateTime.now().plusHours(2), Status.INTIME),
+                new FlightDto()
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.addFlights(flightDtos));
+        assertThrows(IllegalArgumentException.class, () -> flightService.addFlights(Collections.emptyList()));
+        verifyNoInteractions(timeZoneService);
+        verify(flightRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void testUpdateFlightStatus_ExistingFlightId_Success() {
         Long flightId = 1L;
@@ -170,6 +301,7 @@ public class FlightServiceImplTests {
 
         assertEquals(updatedFlight.getStatus(), returnedFlight.getStatus());
         verify(flightRepository, times(1)).save(existingFlight);
+        verify(eventPublisher, times(1)).publishEvent(any(FlightChangedEvent.class));
     }
 
     @Test
@@ -194,4 +326,70 @@ public class FlightServiceImplTests {
         assertThrows(IllegalArgumentException.class, () -> flightService.updateFlightStatus(flightId, invalidStatus));
         verify(flightRepository, never()).save(any());
     }
+
+    @Test
+    void testUpdateFlightStatuses_List_OneUpdatePerStatus() {
+        OffsetDateTime now = OffsetDateTime.now();
+        Flight flight1 = new Flight(1L, "Almaty", "Astana", now, now.plusHours(1), Status.INTIME);
+        Flight flight2 = new Flight(2L, "Almaty", "Dubai", now, now.plusHours(3), Status.INTIME);
+        Flight flight3 = new Flight(3L, "Almaty", "Baku", now, now.plusHours(3), Status.DELAYED);
+        FlightBulkStatusUpdateDto bulkStatusUpdateDto = new FlightBulkStatusUpdateDto(List.of(
+                new FlightStatusUpdateDto(1L, Status.DELAYED),
+                new FlightStatusUpdateDto(2L, Status.DELAYED),
+                new FlightStatusUpdateDto(3L, Status.DELAYED),
+                new FlightStatusUpdateDto(4L, Status.CANCELLED)), null, null, null, null);
+
+        when(flightRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(flight1, flight2, flight3));
+
+        List<FlightStatusUpdateResult> results = flightService.updateFlightStatuses(bulkStatusUpdateDto);
+
+        assertEquals(List.of(
+                new FlightStatusUpdateResult(1L, FlightUpdateOutcome.UPDATED, Status.INTIME, Status.DELAYED),
+                new FlightStatusUpdateResult(2L, FlightUpdateOutcome.UPDATED, Status.INTIME, Status.DELAYED),
+                new FlightStatusUpdateResult(3L, FlightUpdateOutcome.UNCHANGED, Status.DELAYED, Status.DELAYED),
+                new FlightStatusUpdateResult(4L, FlightUpdateOutcome.NOT_FOUND, null, null)), results);
+        verify(flightRepository, times(1)).updateStatus(eq(List.of(1L, 2L)), eq(Status.DELAYED), any());
+        verify(flightRepository, never()).updateStatus(anyCollection(), eq(Status.CANCELLED), any());
+        verify(flightRepository, never()).save(any());
+        verify(eventPublisher, times(2)).publishEvent(any(FlightChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateFlightStatuses_Filter_UpdatesMatchingFlights() {
+        OffsetDateTime from = OffsetDateTime.parse("2024-06-01T00:00:00Z");
+        OffsetDateTime to = from.plusHours(6);
+        Flight flight1 = new Flight(1L, "Almaty", "Astana", from.plusHours(1), from.plusHours(2), Status.INTIME);
+        Flight flight2 = new Flight(2L, "Almaty", "Dubai", from.plusHours(2), from.plusHours(5), Status.DELAYED);
+        FlightBulkStatusUpdateDto bulkStatusUpdateDto = new FlightBulkStatusUpdateDto(null, "Almaty", from, to, Status.CANCELLED);
+
+        when(flightRepository.findAllByOriginAndDepartureForUpdate(eq("Almaty"), eq(from), eq(to), any(Limit.class)))
+                .thenReturn(Arrays.asList(flight1, flight2));
+
+        List<FlightStatusUpdateResult> results = flightService.updateFlightStatuses(bulkStatusUpdateDto);
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == FlightUpdateOutcome.UPDATED));
+        verify(flightRepository, times(1)).updateStatus(eq(List.of(1L, 2L)), eq(Status.CANCELLED), any());
+        verify(eventPublisher, times(2)).publishEvent(any(FlightChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateFlightStatuses_ListAndFilter_ExceptionThrown() {
+        OffsetDateTime from = OffsetDateTime.now();
+        FlightBulkStatusUpdateDto bulkStatusUpdateDto = new FlightBulkStatusUpdateDto(
+                List.of(new FlightStatusUpdateDto(1L, Status.DELAYED)), "Almaty", from, from.plusHours(1), null);
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.updateFlightStatuses(bulkStatusUpdateDto));
+        assertThrows(IllegalArgumentException.class, () -> flightService.updateFlightStatuses(new FlightBulkStatusUpdateDto()));
+        verify(flightRepository, never()).updateStatus(anyCollection(), any(), any());
+    }
+
+    @Test
+    void testUpdateFlightStatuses_InvalidWindow_ExceptionThrown() {
+        OffsetDateTime from = OffsetDateTime.now();
+        FlightBulkStatusUpdateDto bulkStatusUpdateDto = new FlightBulkStatusUpdateDto(null, "Almaty", from, from.minusHours(1), Status.DELAYED);
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.updateFlightStatuses(bulkStatusUpdateDto));
+        verify(flightRepository, never()).findAllByOriginAndDepartureForUpdate(any(), any(), any(), any());
+    }
 }
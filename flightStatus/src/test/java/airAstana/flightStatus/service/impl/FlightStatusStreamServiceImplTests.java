@@ -0,0 +1,160 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.FlightChangedEvent;
+import airAstana.flightStatus.model.Flight;
+import airAstana.flightStatus.model.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightStatusStreamServiceImplTests {
+
+    private final CityDictionaryServiceImpl cityDictionaryService = new CityDictionaryServiceImpl(100);
+
+    private final FlightStatusStreamServiceImpl streamService = new FlightStatusStreamServiceImpl(cityDictionaryService, 1, 60000, 60000);
+
+    private FlightChangedEvent statusChange(String origin, String destination) {
+        Flight flight = new Flight(1L, origin, destination, OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.DELAYED);
+        return new FlightChangedEvent(flight, Status.INTIME);
+    }
+
+    @Test
+    void testOnFlightChanged_MatchingSubscriber_ReceivesStatusChange() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        streamService.register(emitter, "almaty", null);
+
+        streamService.onFlightChanged(statusChange("Dubai", "Astana"));
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+
+        assertNotNull(emitter.sent.poll(5, TimeUnit.SECONDS));
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testRegister_UnknownCity_NotInternedAndMatchedOnceUsed() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        streamService.register(emitter, "ALMATY", null);
+
+        assertEquals(0, cityDictionaryService.size());
+
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+
+        assertNotNull(emitter.sent.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubscribe_InvalidCity_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> streamService.subscribe("Almaty1", null));
+        assertThrows(IllegalArgumentException.class, () -> streamService.subscribe(null, ""));
+        assertEquals(0, streamService.subscriberCount());
+        assertEquals(0, cityDictionaryService.size());
+    }
+
+    @Test
+    void testOnFlightChanged_CreatedFlight_NotSent() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        streamService.register(emitter, null, null);
+
+        Flight flight = new Flight(1L, "Almaty", "Astana", OffsetDateTime.now(), OffsetDateTime.now().plusHours(1), Status.INTIME);
+        streamService.onFlightChanged(new FlightChangedEvent(flight, null));
+
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testOnFlightChanged_SlowSubscriber_Dropped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        streamService.register(emitter, null, null);
+
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+        assertEquals(1, streamService.subscriberCount());
+
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+        assertEquals(0, streamService.subscriberCount());
+        release.countDown();
+    }
+
+    @Test
+    void testOnFlightChanged_SendNeverReturns_DroppedAndCompletedByPublisher() throws Exception {
+        StuckEmitter emitter = new StuckEmitter();
+        streamService.register(emitter, null, null);
+
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+
+        long start = System.nanoTime();
+        streamService.onFlightChanged(statusChange("Almaty", "Astana"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, streamService.subscriberCount());
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * emitter whose first send never returns, not even when its thread is interrupted.
+     */
+    private static class StuckEmitter extends SseEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            while (true) {
+                // like a blocked socket write, the interrupt is swallowed and the thread stays blocked
+                Thread.interrupted();
+                LockSupport.park();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+    }
+
+    /**
+     * emitter recording sent events, optionally blocking every send until released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder);
+        }
+    }
+}
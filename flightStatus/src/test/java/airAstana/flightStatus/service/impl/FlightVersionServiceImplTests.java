@@ -0,0 +1,61 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.dto.FlightCursor;
+import airAstana.flightStatus.service.FlightIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FlightVersionServiceImplTests {
+
+    @Mock
+    private FlightIndexService flightIndexService;
+
+    private FlightVersionServiceImpl flightVersionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(flightIndexService.isReady()).thenReturn(true);
+        flightVersionService = new FlightVersionServiceImpl(flightIndexService);
+    }
+
+    @Test
+    void testGetETag_VersionChanged_TagChanged() {
+        when(flightIndexService.getVersion("Almaty", "Astana")).thenReturn(1L, 2L);
+
+        String before = flightVersionService.getETag("Almaty", "Astana", null, null);
+
+        assertNotEquals(before, flightVersionService.getETag("Almaty", "Astana", null, null));
+    }
+
+    @Test
+    void testGetETag_DifferentPages_DifferentTags() {
+        when(flightIndexService.getVersion(null, null)).thenReturn(-1L);
+        String cursor = FlightCursor.FIRST.encode();
+
+        assertEquals(flightVersionService.getETag(null, null, null, 10), flightVersionService.getETag(null, null, null, 10));
+        assertNotEquals(flightVersionService.getETag(null, null, null, 10), flightVersionService.getETag(null, null, null, 20));
+        assertNotEquals(flightVersionService.getETag(null, null, null, 10), flightVersionService.getETag(null, null, cursor, 10));
+    }
+
+    @Test
+    void testGetETag_InvalidRequest_ExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> flightVersionService.getETag("Almaty1", null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> flightVersionService.getETag(null, "", null, null));
+        assertThrows(IllegalArgumentException.class, () -> flightVersionService.getETag(null, null, "bad", null));
+        assertThrows(IllegalArgumentException.class, () -> flightVersionService.getETag(null, null, null, 0));
+        verify(flightIndexService, never()).getVersion(any(), any());
+    }
+
+    @Test
+    void testGetETag_IndexNotReady_NoTag() {
+        when(flightIndexService.isReady()).thenReturn(false);
+
+        assertNull(flightVersionService.getETag("Almaty", null, null, null));
+    }
+}
@@ -0,0 +1,172 @@
+package airAstana.flightStatus.service.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * local stand-in for the Google Maps Geocoding and Time Zone APIs, answering from a fixed set of cities.
+ * it can add latency and fail requests, and counts the requests it receives, for tests and benchmarks.
+ */
+public class GoogleMapsStubServer implements AutoCloseable {
+
+    private record City(double lat, double lng, String timeZoneId) {
+    }
+
+    private final Map<String, City> cities = new ConcurrentHashMap<>();
+
+    private final Map<String, String> zonesByLocation = new ConcurrentHashMap<>();
+
+    private final AtomicInteger geocodeRequests = new AtomicInteger();
+
+    private final AtomicInteger timeZoneRequests = new AtomicInteger();
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final HttpServer server;
+
+    private volatile long latencyMillis;
+
+    private volatile int failureStatus;
+
+    private volatile String serviceStatus;
+
+    public GoogleMapsStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/geocode/json", exchange -> handle(exchange, this::geocode, geocodeRequests));
+        server.createContext("/timezone/json", exchange -> handle(exchange, this::timeZone, timeZoneRequests));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return base URL to configure as timezone.google.base-url
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public GoogleMapsStubServer withCity(String name, double lat, double lng, String timeZoneId) {
+        cities.put(name.toLowerCase(), new City(lat, lng, timeZoneId));
+        zonesByLocation.put(lat + "," + lng, timeZoneId);
+        return this;
+    }
+
+    /**
+     * @param latencyMillis time every request waits before it is answered
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param failureStatus HTTP status every request is answered with, or 0 to answer normally
+     */
+    public void setFailureStatus(int failureStatus) {
+        this.failureStatus = failureStatus;
+    }
+
+    /**
+     * @param serviceStatus API status, such as OVER_QUERY_LIMIT, every request is answered with under HTTP 200,
+     *                      or null to answer normally
+     */
+    public void setServiceStatus(String serviceStatus) {
+        this.serviceStatus = serviceStatus;
+    }
+
+    public int getGeocodeRequests() {
+        return geocodeRequests.get();
+    }
+
+    public int getTimeZoneRequests() {
+        return timeZoneRequests.get();
+    }
+
+    /**
+     * @return highest number of requests that were handled at the same time
+     */
+    public int getMaxActiveRequests() {
+        return maxActiveRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String geocode(Map<String, String> query) {
+        City city = cities.get(query.getOrDefault("address", "").toLowerCase());
+        if (city == null) {
+            return "{\"status\":\"ZERO_RESULTS\",\"results\":[]}";
+        }
+        return "{\"status\":\"OK\",\"results\":[{\"geometry\":{\"location\":{\"lat\":" + city.lat() + ",\"lng\":" + city.lng() + "}}}]}";
+    }
+
+    private String timeZone(Map<String, String> query) {
+        String timeZoneId = zonesByLocation.get(query.getOrDefault("location", ""));
+        if (timeZoneId == null) {
+            return "{\"status\":\"ZERO_RESULTS\"}";
+        }
+        return "{\"status\":\"OK\",\"rawOffset\":0,\"dstOffset\":0,\"timeZoneId\":\"" + timeZoneId + "\"}";
+    }
+
+    private void handle(HttpExchange exchange, Function<Map<String, String>, String> handler,
+                        AtomicInteger counter) throws IOException {
+        counter.incrementAndGet();
+        maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            int status = failureStatus == 0 ? 200 : failureStatus;
+            String serviceStatus = this.serviceStatus;
+            byte[] body = (failureStatus != 0 ? "error"
+                    : serviceStatus != null ? "{\"status\":\"" + serviceStatus + "\"}"
+                    : handler.apply(parseQuery(exchange.getRequestURI().getRawQuery())))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeRequests.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    query.put(parameter.substring(0, separator),
+                            URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+}
@@ -0,0 +1,123 @@
+package airAstana.flightStatus.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtKeyRingTests {
+
+    private static final String SECRET_1 = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private static final String SECRET_2 = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    @Mock
+    private Clock clock;
+
+    @TempDir
+    Path directory;
+
+    private final long now = Instant.parse("2024-06-01T00:00:00Z").toEpochMilli();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(now);
+    }
+
+    @Test
+    void testParse_CommentsAndBlankLinesSkipped() throws Exception {
+        Map<String, JwtKeyRing.SigningKey> keys = JwtKeyRing.parse(reader(
+                "# rotated monthly",
+                "",
+                "k1,2024-01-01T00:00:00Z," + SECRET_1,
+                "k2,2024-07-01T00:00:00Z," + SECRET_2));
+
+        assertEquals(2, keys.size());
+        assertEquals(Instant.parse("2024-07-01T00:00:00Z"), keys.get("k2").activeFrom());
+    }
+
+    @Test
+    void testParse_InvalidLines_ExceptionThrown() {
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.parse(reader("k1," + SECRET_1)));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.parse(reader("k1,yesterday," + SECRET_1)));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.parse(reader("k1,2024-01-01T00:00:00Z,c2hvcnQ=")));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.parse(reader(
+                "k1,2024-01-01T00:00:00Z," + SECRET_1,
+                "k1,2024-02-01T00:00:00Z," + SECRET_2)));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.parse(reader("# no keys")));
+    }
+
+    @Test
+    void testSigningKey_LatestActiveKeyUsed() throws Exception {
+        JwtKeyRing keyRing = JwtKeyRing.load(write(
+                "k1,2024-01-01T00:00:00Z," + SECRET_1,
+                "k2,2024-07-01T00:00:00Z," + SECRET_2), 1000, clock);
+
+        assertEquals("k1", keyRing.signingKey().kid());
+        assertNotNull(keyRing.verificationKey("k2"));
+
+        when(clock.millis()).thenReturn(Instant.parse("2024-07-01T00:00:00Z").toEpochMilli());
+
+        assertEquals("k2", keyRing.signingKey().kid());
+        assertNotNull(keyRing.verificationKey("k1"));
+        assertNull(keyRing.verificationKey("k3"));
+        assertNull(keyRing.verificationKey(null));
+    }
+
+    @Test
+    void testSigningKey_NoActiveKey_ExceptionThrown() throws Exception {
+        JwtKeyRing keyRing = JwtKeyRing.load(write("k1,2025-01-01T00:00:00Z," + SECRET_1), 1000, clock);
+
+        assertThrows(IllegalStateException.class, keyRing::signingKey);
+    }
+
+    @Test
+    void testVerificationKey_FileChanged_ReloadedAfterRefreshInterval() throws Exception {
+        Path file = write("k1,2024-01-01T00:00:00Z," + SECRET_1);
+        JwtKeyRing keyRing = JwtKeyRing.load(file, 1000, clock);
+
+        Files.writeString(file, "k2,2024-01-01T00:00:00Z," + SECRET_2);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+        assertNotNull(keyRing.verificationKey("k1"));
+
+        when(clock.millis()).thenReturn(now + 1000);
+
+        assertNull(keyRing.verificationKey("k1"));
+        assertEquals("k2", keyRing.signingKey().kid());
+    }
+
+    @Test
+    void testVerificationKey_InvalidFileOnReload_PreviousKeysKept() throws Exception {
+        Path file = write("k1,2024-01-01T00:00:00Z," + SECRET_1);
+        JwtKeyRing keyRing = JwtKeyRing.load(file, 1000, clock);
+
+        Files.writeString(file, "broken");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+        when(clock.millis()).thenReturn(now + 1000);
+
+        assertNotNull(keyRing.verificationKey("k1"));
+    }
+
+    private BufferedReader reader(String... lines) {
+        return new BufferedReader(new StringReader(String.join("\n", lines)));
+    }
+
+    private Path write(String... lines) throws Exception {
+        return Files.writeString(directory.resolve("jwt-keys.csv"), String.join("\n", lines));
+    }
+}
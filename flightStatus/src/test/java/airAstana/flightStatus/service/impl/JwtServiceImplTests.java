@@ -0,0 +1,144 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.EnumRole;
+import airAstana.flightStatus.model.Role;
+import airAstana.flightStatus.model.User;
+import airAstana.flightStatus.model.dto.VerifiedToken;
+import airAstana.flightStatus.service.TokenVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtServiceImplTests {
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private Clock clock;
+
+    private JwtServiceImpl jwtService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User("admin", "password");
+        user.setRole(new Role(EnumRole.ADMIN));
+        when(tokenVersionService.getTokenVersion("admin")).thenReturn(0L);
+        when(clock.millis()).thenReturn(System.currentTimeMillis());
+        jwtService = new JwtServiceImpl(tokenVersionService, JwtKeyRing.ephemeral(clock), 900000, 100, 60000, clock);
+    }
+
+    @Test
+    void testVerifyToken_ValidToken_SubjectAndAuthoritiesReadFromClaims() {
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken verified = jwtService.verifyToken(token);
+
+        assertNotNull(verified);
+        assertEquals("admin", verified.getSubject());
+        assertNotNull(verified.getTokenId());
+        assertNotEquals(verified.getTokenId(), jwtService.verifyToken(jwtService.generateToken(user)).getTokenId());
+        assertEquals(user.getAuthorities(), verified.getAuthorities());
+        assertTrue(jwtService.validateToken(token, user));
+    }
+
+    @Test
+    void testVerifyToken_RepeatedToken_VerifiedOnce() {
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken first = jwtService.verifyToken(token);
+        VerifiedToken second = jwtService.verifyToken(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testVerifyToken_CacheTtlPassed_VerifiedAgain() {
+        long now = System.currentTimeMillis();
+        when(clock.millis()).thenReturn(now);
+        String token = jwtService.generateToken(user);
+        VerifiedToken first = jwtService.verifyToken(token);
+
+        when(clock.millis()).thenReturn(now + 60000);
+        VerifiedToken second = jwtService.verifyToken(token);
+
+        assertNotNull(second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void testVerifyToken_TokenVersionIncremented_ReturnsNull() {
+        String token = jwtService.generateToken(user);
+        assertNotNull(jwtService.verifyToken(token));
+
+        when(tokenVersionService.getTokenVersion("admin")).thenReturn(1L);
+
+        assertNull(jwtService.verifyToken(token));
+        assertNotNull(jwtService.verifyToken(jwtService.generateToken(user)));
+    }
+
+    @Test
+    void testVerifyToken_ExpiredToken_ReturnsNull() {
+        long now = System.currentTimeMillis();
+        when(clock.millis()).thenReturn(now);
+        String token = jwtService.generateToken(user);
+        jwtService.verifyToken(token);
+
+        when(clock.millis()).thenReturn(now + 1000L * 60 * 60 * 24 * 2);
+
+        assertNull(jwtService.verifyToken(token));
+    }
+
+    @Test
+    void testVerifyToken_TamperedToken_ReturnsNull() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(jwtService.verifyToken(tampered));
+        assertNull(jwtService.verifyToken("not-a-token"));
+    }
+
+    @Test
+    void testVerifyToken_TokenFromOtherKey_ReturnsNull() {
+        String token = new JwtServiceImpl(tokenVersionService, JwtKeyRing.ephemeral(clock), 900000, 100, 60000, clock).generateToken(user);
+
+        assertNull(jwtService.verifyToken(token));
+    }
+
+    @Test
+    void testVerifyToken_UnknownUser_ReturnsNull() {
+        String token = jwtService.generateToken(user);
+        when(tokenVersionService.getTokenVersion("admin")).thenReturn(null);
+
+        assertNull(jwtService.verifyToken(token));
+    }
+
+    @Test
+    void testVerifyToken_SharedKeyRing_TokenAcceptedByOtherNode(@TempDir Path directory) throws Exception {
+        Path file = Files.writeString(directory.resolve("jwt-keys.csv"),
+                "k1,2024-01-01T00:00:00Z," + Base64.getEncoder().encodeToString(new byte[32]));
+        JwtServiceImpl first = new JwtServiceImpl(tokenVersionService, JwtKeyRing.load(file, 1000, clock), 900000, 100, 60000, clock);
+        JwtServiceImpl second = new JwtServiceImpl(tokenVersionService, JwtKeyRing.load(file, 1000, clock), 900000, 100, 60000, clock);
+
+        String token = first.generateToken(user);
+
+        assertEquals("k1", Jwts.parserBuilder().build().parse(token.substring(0, token.lastIndexOf('.') + 1)).getHeader().get("kid"));
+        assertNotNull(second.verifyToken(token));
+        assertNull(jwtService.verifyToken(token));
+    }
+}
@@ -0,0 +1,80 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.service.TimeZoneService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OfflineTimeZoneServiceImplTests {
+
+    @Mock
+    private TimeZoneService fallback;
+
+    private OfflineTimeZoneServiceImpl timeZoneService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        timeZoneService = new OfflineTimeZoneServiceImpl(fallback, "timezones/cities.csv", true);
+    }
+
+    @Test
+    void testGetZoneId_ZoneCity_ResolvedWithoutFallback() {
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneId("Almaty"));
+        assertEquals(ZoneId.of("America/New_York"), timeZoneService.getZoneId("NEWYORK"));
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void testGetZoneId_DatasetCity_ResolvedWithoutFallback() {
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneId("Astana"));
+        assertEquals(ZoneId.of("Asia/Kolkata"), timeZoneService.getZoneId("delhi"));
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void testGetZonedDateTime_HalfHourZone() {
+        OffsetDateTime departure = OffsetDateTime.parse("2024-06-01T10:00:00Z");
+
+        OffsetDateTime zoned = timeZoneService.getZonedDateTime(departure, "Delhi");
+
+        assertEquals(OffsetDateTime.parse("2024-06-01T10:00:00+05:30"), zoned);
+    }
+
+    @Test
+    void testGetZonedDateTime_DaylightSavingTime() {
+        OffsetDateTime winter = timeZoneService.getZonedDateTime(OffsetDateTime.parse("2024-01-15T10:00:00Z"), "London");
+        OffsetDateTime summer = timeZoneService.getZonedDateTime(OffsetDateTime.parse("2024-07-15T10:00:00Z"), "London");
+        OffsetDateTime adelaide = timeZoneService.getZonedDateTime(OffsetDateTime.parse("2024-01-15T10:00:00Z"), "Adelaide");
+
+        assertEquals(ZoneOffset.UTC, winter.getOffset());
+        assertEquals(ZoneOffset.ofHours(1), summer.getOffset());
+        assertEquals(ZoneOffset.ofHoursMinutes(10, 30), adelaide.getOffset());
+    }
+
+    @Test
+    void testGetZoneId_UnknownCity_ResolvedByFallback() {
+        when(fallback.getZoneIdAsync("Smalltown")).thenReturn(CompletableFuture.completedFuture(ZoneId.of("Europe/Oslo")));
+
+        assertEquals(ZoneId.of("Europe/Oslo"), timeZoneService.getZoneId("Smalltown"));
+        verify(fallback, times(1)).getZoneIdAsync("Smalltown");
+    }
+
+    @Test
+    void testGetZoneId_UnknownCityFallbackDisabled_ExceptionThrown() {
+        OfflineTimeZoneServiceImpl offlineOnly = new OfflineTimeZoneServiceImpl(fallback, "timezones/cities.csv", false);
+
+        assertThrows(InvalidCityException.class, () -> offlineOnly.getZoneId("Smalltown"));
+        verifyNoInteractions(fallback);
+    }
+}
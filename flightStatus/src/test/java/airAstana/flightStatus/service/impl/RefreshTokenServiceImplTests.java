@@ -0,0 +1,156 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.exception.InvalidRefreshTokenException;
+import airAstana.flightStatus.model.RefreshToken;
+import airAstana.flightStatus.model.dto.RefreshTokenRotation;
+import airAstana.flightStatus.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RefreshTokenServiceImplTests {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private Clock clock;
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    // rows of the refresh_tokens table behind the mocked repository
+    private final Map<String, RefreshToken> rows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        when(refreshTokenRepository.save(any())).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            rows.put(token.getDigest(), token);
+            return token;
+        });
+        when(refreshTokenRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0)))
+                .map(row -> new RefreshToken(row.getDigest(), row.getUsername(), row.getFamily(), row.getExpiresAt(), row.isUsed())));
+        when(refreshTokenRepository.markUsed(anyString())).thenAnswer(invocation -> {
+            RefreshToken row = rows.get(invocation.<String>getArgument(0));
+            if (row == null || row.isUsed()) {
+                return 0;
+            }
+            row.setUsed(true);
+            return 1;
+        });
+        when(refreshTokenRepository.deleteFamilyOf(anyString())).thenAnswer(invocation -> {
+            RefreshToken row = rows.get(invocation.<String>getArgument(0));
+            return row == null ? 0 : rows.values().removeIf(other -> other.getFamily().equals(row.getFamily())) ? 1 : 0;
+        });
+        when(refreshTokenRepository.deleteFamilyOfOwnedBy(anyString(), anyString())).thenAnswer(invocation -> {
+            RefreshToken row = rows.get(invocation.<String>getArgument(0));
+            return row == null || !row.getUsername().equals(invocation.getArgument(1)) ? 0
+                    : rows.values().removeIf(other -> other.getFamily().equals(row.getFamily())) ? 1 : 0;
+        });
+        when(refreshTokenRepository.deleteExpired(any())).thenAnswer(invocation -> {
+            OffsetDateTime now = invocation.getArgument(0);
+            return rows.values().removeIf(row -> !row.getExpiresAt().isAfter(now)) ? 1 : 0;
+        });
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, 1000, clock);
+    }
+
+    @Test
+    void testRotate_ValidToken_SuccessorIssued() {
+        String token = refreshTokenService.issue("user");
+
+        RefreshTokenRotation rotation = refreshTokenService.rotate(token);
+
+        assertEquals("user", rotation.getUsername());
+        assertNotEquals(token, rotation.getRefreshToken());
+        assertEquals("user", refreshTokenService.rotate(rotation.getRefreshToken()).getUsername());
+    }
+
+    @Test
+    void testRotate_ReusedToken_FamilyRevoked() {
+        String token = refreshTokenService.issue("user");
+        String otherLogin = refreshTokenService.issue("user");
+        String successor = refreshTokenService.rotate(token).getRefreshToken();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(successor));
+        assertEquals("user", refreshTokenService.rotate(otherLogin).getUsername());
+    }
+
+    @Test
+    void testRotate_ConcurrentRotation_OnlyOneSucceeds() {
+        String token = refreshTokenService.issue("user");
+        String digest = VerifiedTokenCache.digest(token);
+        // another node marks the token as used between this node reading and updating it
+        when(refreshTokenRepository.markUsed(digest)).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenRepository).deleteFamilyOf(digest);
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testRotate_UnknownOrMissingToken_ExceptionThrown() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(null));
+        verify(refreshTokenRepository, never()).deleteFamilyOf(anyString());
+    }
+
+    @Test
+    void testRotate_ExpiredToken_ExceptionThrown() {
+        String token = refreshTokenService.issue("user");
+        when(clock.millis()).thenReturn(1000L);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+    }
+
+    @Test
+    void testIssue_ExpiredTokensPurgedOncePerInterval() {
+        refreshTokenService.issue("first");
+        refreshTokenService.issue("second");
+
+        when(clock.millis()).thenReturn(1000L);
+        refreshTokenService.issue("third");
+        assertEquals(3, rows.size());
+
+        when(clock.millis()).thenReturn(60_000L);
+        refreshTokenService.issue("fourth");
+        assertEquals(1, rows.size());
+        verify(refreshTokenRepository, times(1)).deleteExpired(any());
+    }
+
+    @Test
+    void testRevoke_FamilyRevoked() {
+        String token = refreshTokenService.issue("user");
+        String successor = refreshTokenService.rotate(token).getRefreshToken();
+
+        refreshTokenService.revoke(successor, "user");
+        refreshTokenService.revoke("unknown", "user");
+        refreshTokenService.revoke(null, "user");
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(successor));
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testRevoke_TokenOfOtherUser_Ignored() {
+        String token = refreshTokenService.issue("user");
+
+        refreshTokenService.revoke(token, "other");
+
+        assertEquals("user", refreshTokenService.rotate(token).getUsername());
+    }
+}
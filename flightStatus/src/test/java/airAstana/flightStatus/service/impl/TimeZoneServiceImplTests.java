@@ -1,19 +1,25 @@
 package airAstana.flightStatus.service.impl;
 
 import airAstana.flightStatus.exception.InvalidCityException;
+import airAstana.flightStatus.exception.TimeZoneServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.when;
 
 public class TimeZoneServiceImplTests {
@@ -24,23 +30,179 @@ public class TimeZoneServiceImplTests {
     @Mock
     private HttpResponse<String> httpResponse;
 
-    @InjectMocks
     private TimeZoneServiceImpl timeZoneService;
 
+    private GoogleMapsStubServer stubServer;
+
+    private HttpClient sharedClient;
+
+    private TimeZoneServiceImpl stubbedTimeZoneService;
+
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
+        timeZoneService = new TimeZoneServiceImpl(httpClient, "key", "https://maps.googleapis.com/maps/api", 1000, 1000, 16, 5, 30000);
+
+        stubServer = new GoogleMapsStubServer()
+                .withCity("Almaty", 43.2, 76.9, "Asia/Almaty")
+                .withCity("Delhi", 28.6, 77.2, "Asia/Kolkata");
+        sharedClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        stubbedTimeZoneService = new TimeZoneServiceImpl(sharedClient, "key", stubServer.getBaseUrl(), 500, 800, 4, 3, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
     }
 
     @Test
-    void testGetCoordinates_InvalidCity_ExceptionThrown() throws Exception {
+    void testGetCoordinates_InvalidCity_ExceptionThrown() {
         String city = "InvalidCity";
         String responseBody = "{\"status\":\"ZERO_RESULTS\",\"results\":[]}";
 
-        when(httpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
-                .thenReturn(httpResponse);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(httpResponse));
         when(httpResponse.body()).thenReturn(responseBody);
 
         assertThrows(InvalidCityException.class, () -> timeZoneService.getCoordinates(city));
     }
+
+    @Test
+    void testGetCoordinates_OverQueryLimit_UnavailableThrown() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(httpResponse));
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn("{\"status\":\"OVER_QUERY_LIMIT\",\"results\":[]}");
+
+        assertThrows(TimeZoneServiceUnavailableException.class, () -> timeZoneService.getCoordinates("Almaty"));
+    }
+
+    @Test
+    void testGetZoneId_RequestDenied_LastKnownZoneReturned() {
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenReturn(CompletableFuture.completedFuture(httpResponse));
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body())
+                .thenReturn("{\"status\":\"OK\",\"results\":[{\"geometry\":{\"location\":{\"lat\":43.2,\"lng\":76.9}}}]}")
+                .thenReturn("{\"status\":\"OK\",\"timeZoneId\":\"Asia/Almaty\"}")
+                .thenReturn("{\"status\":\"OK\",\"results\":[{\"geometry\":{\"location\":{\"lat\":43.2,\"lng\":76.9}}}]}")
+                .thenReturn("{\"status\":\"REQUEST_DENIED\"}");
+
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneId("Almaty"));
+        assertEquals(ZoneId.of("Asia/Almaty"), timeZoneService.getZoneId("Almaty"));
+    }
+
+    @Test
+    void testGetZoneId_KnownCity_IanaZoneReturned() {
+        assertEquals(ZoneId.of("Asia/Kolkata"), stubbedTimeZoneService.getZoneId("Delhi"));
+        assertEquals(1, stubServer.getGeocodeRequests());
+        assertEquals(1, stubServer.getTimeZoneRequests());
+    }
+
+    @Test
+    void testGetZoneId_UnknownCity_ExceptionThrown() {
+        assertThrows(InvalidCityException.class, () -> stubbedTimeZoneService.getZoneId("Nowhere"));
+        assertEquals(0, stubServer.getTimeZoneRequests());
+    }
+
+    @Test
+    void testGetZoneIdAsync_TwoCities_ResolvedConcurrently() {
+        stubServer.setLatencyMillis(200);
+
+        CompletableFuture<ZoneId> origin = stubbedTimeZoneService.getZoneIdAsync("Almaty");
+        CompletableFuture<ZoneId> destination = stubbedTimeZoneService.getZoneIdAsync("Delhi");
+
+        assertEquals(ZoneId.of("Asia/Almaty"), origin.join());
+        assertEquals(ZoneId.of("Asia/Kolkata"), destination.join());
+        assertEquals(2, stubServer.getMaxActiveRequests());
+    }
+
+    @Test
+    void testGetZoneId_SlowApi_TimesOut() {
+        stubServer.setLatencyMillis(2000);
+
+        long start = System.nanoTime();
+        assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Almaty"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    void testGetZoneId_ApiErrors_BreakerOpensAndFailsFast() {
+        stubServer.setFailureStatus(503);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Almaty"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, stubbedTimeZoneService.getCircuitBreakerState());
+
+        assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Almaty"));
+        assertEquals(3, stubServer.getGeocodeRequests());
+    }
+
+    @Test
+    void testGetZoneId_OverQueryLimit_BreakerOpensAndCityNotInvalid() {
+        stubServer.setServiceStatus("OVER_QUERY_LIMIT");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Almaty"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, stubbedTimeZoneService.getCircuitBreakerState());
+
+        assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Almaty"));
+        assertEquals(3, stubServer.getGeocodeRequests());
+    }
+
+    @Test
+    void testGetZoneId_ZeroResults_BreakerStaysClosed() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(InvalidCityException.class, () -> stubbedTimeZoneService.getZoneId("Nowhere"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, stubbedTimeZoneService.getCircuitBreakerState());
+    }
+
+    @Test
+    void testGetZoneId_BreakerOpenDurationPassed_ClosesAfterSuccessfulTrial() throws Exception {
+        stubServer.setFailureStatus(503);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Almaty"));
+        }
+
+        stubServer.setFailureStatus(0);
+        Thread.sleep(250);
+
+        assertEquals(ZoneId.of("Asia/Almaty"), stubbedTimeZoneService.getZoneId("Almaty"));
+        assertEquals(CircuitBreaker.State.CLOSED, stubbedTimeZoneService.getCircuitBreakerState());
+    }
+
+    @Test
+    void testGetZoneId_ApiDown_LastKnownZoneReturned() {
+        assertEquals(ZoneId.of("Asia/Almaty"), stubbedTimeZoneService.getZoneId("Almaty"));
+
+        stubServer.setFailureStatus(500);
+
+        assertEquals(ZoneId.of("Asia/Almaty"), stubbedTimeZoneService.getZoneId("ALMATY"));
+        assertThrows(TimeZoneServiceUnavailableException.class, () -> stubbedTimeZoneService.getZoneId("Delhi"));
+    }
+
+    @Test
+    void testGetZoneIdAsync_TooManyConcurrentCalls_RejectedImmediately() {
+        stubServer.setLatencyMillis(300);
+
+        List<CompletableFuture<ZoneId>> lookups = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            lookups.add(stubbedTimeZoneService.getZoneIdAsync("Almaty"));
+        }
+        CompletableFuture<ZoneId> rejected = stubbedTimeZoneService.getZoneIdAsync("Delhi");
+
+        assertTrue(rejected.isCompletedExceptionally());
+        lookups.forEach(lookup -> assertEquals(ZoneId.of("Asia/Almaty"), lookup.join()));
+        assertEquals(CircuitBreaker.State.CLOSED, stubbedTimeZoneService.getCircuitBreakerState());
+    }
+
+    @Test
+    void testGetUtcOffset_ApiError_ExceptionThrown() {
+        stubServer.setFailureStatus(500);
+
+        assertThrows(RuntimeException.class, () -> stubbedTimeZoneService.getUtcOffset(new double[]{43.2, 76.9}));
+    }
 }
@@ -0,0 +1,138 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.TokenRevokedEvent;
+import airAstana.flightStatus.model.RevokedToken;
+import airAstana.flightStatus.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocationServiceImplTests {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Clock clock;
+
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        tokenRevocationService = new TokenRevocationServiceImpl(revokedTokenRepository, eventPublisher, 2, 0.01, 10_000, clock);
+        doAnswer(invocation -> {
+            tokenRevocationService.onTokenRevoked(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(TokenRevokedEvent.class));
+    }
+
+    @Test
+    void testRevoke_TokenRevokedAndStored() {
+        tokenRevocationService.revoke("jti-1", 1000);
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        assertFalse(tokenRevocationService.isRevoked("jti-2"));
+        verify(revokedTokenRepository, times(1)).save(new RevokedToken("jti-1",
+                OffsetDateTime.of(1970, 1, 1, 0, 0, 1, 0, ZoneOffset.UTC), OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void testRevoke_NotCommitted_TokenNotRevoked() {
+        doNothing().when(eventPublisher).publishEvent(any(TokenRevokedEvent.class));
+
+        tokenRevocationService.revoke("jti-1", 1000);
+
+        assertFalse(tokenRevocationService.isRevoked("jti-1"));
+
+        tokenRevocationService.onTokenRevoked(new TokenRevokedEvent("jti-1", 1000));
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+    }
+
+    @Test
+    void testRevoke_AlreadyRevokedOrExpired_NotStoredAgain() {
+        tokenRevocationService.revoke("jti-1", 1000);
+        tokenRevocationService.revoke("jti-1", 1000);
+        tokenRevocationService.revoke("jti-2", 0);
+
+        assertFalse(tokenRevocationService.isRevoked("jti-2"));
+        verify(revokedTokenRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testRevoke_ExpiredRowsPurgedOncePerInterval() {
+        tokenRevocationService.revoke("jti-1", 100_000);
+        when(clock.millis()).thenReturn(1000L);
+        tokenRevocationService.revoke("jti-2", 100_000);
+        when(clock.millis()).thenReturn(60_000L);
+        tokenRevocationService.revoke("jti-3", 100_000);
+
+        verify(revokedTokenRepository, times(1)).deleteExpired(OffsetDateTime.of(1970, 1, 1, 0, 1, 0, 0, ZoneOffset.UTC));
+        verify(revokedTokenRepository, times(1)).deleteExpired(any());
+    }
+
+    @Test
+    void testLoad_UnexpiredTokensRevoked() {
+        when(revokedTokenRepository.findAllByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("jti-1", OffsetDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), OffsetDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))));
+
+        tokenRevocationService.load();
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+    }
+
+    @Test
+    void testIsRevoked_RefreshIntervalPassed_RevocationsOfOtherNodesLoaded() {
+        when(revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+                new RevokedToken("jti-1", OffsetDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), OffsetDateTime.of(1970, 1, 1, 0, 0, 5, 0, ZoneOffset.UTC))));
+
+        when(clock.millis()).thenReturn(5000L);
+        assertFalse(tokenRevocationService.isRevoked("jti-1"));
+
+        when(clock.millis()).thenReturn(70_000L);
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+
+        verify(revokedTokenRepository, times(1)).findAllByRevokedAtAfterAndExpiresAtAfter(
+                OffsetDateTime.of(1969, 12, 31, 23, 59, 0, 0, ZoneOffset.UTC), OffsetDateTime.of(1970, 1, 1, 0, 1, 10, 0, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testIsRevoked_ReloadFails_LoadedTokensKept() {
+        tokenRevocationService.revoke("jti-1", 100_000);
+        when(revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenThrow(new IllegalStateException("down"));
+        when(clock.millis()).thenReturn(10_000L);
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        verify(revokedTokenRepository, times(1)).findAllByRevokedAtAfterAndExpiresAtAfter(any(), any());
+    }
+
+    @Test
+    void testRevoke_FilterFull_ExpiredTokensDropped() {
+        tokenRevocationService.revoke("jti-1", 1000);
+        tokenRevocationService.revoke("jti-2", 1000);
+        when(clock.millis()).thenReturn(1000L);
+
+        tokenRevocationService.revoke("jti-3", 2000);
+
+        assertFalse(tokenRevocationService.isRevoked("jti-1"));
+        assertFalse(tokenRevocationService.isRevoked("jti-2"));
+        assertTrue(tokenRevocationService.isRevoked("jti-3"));
+    }
+}
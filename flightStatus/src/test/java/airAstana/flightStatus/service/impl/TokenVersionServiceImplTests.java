@@ -0,0 +1,98 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.event.TokenVersionChangedEvent;
+import airAstana.flightStatus.model.User;
+import airAstana.flightStatus.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenVersionServiceImplTests {
+
+    private static final long TTL = 5000;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Clock clock;
+
+    private TokenVersionServiceImpl tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        tokenVersionService = new TokenVersionServiceImpl(userRepository, eventPublisher, TTL, clock);
+    }
+
+    @Test
+    void testGetTokenVersion_LoadedOnce() {
+        when(userRepository.findTokenVersionByUsernameIgnoreCase("admin")).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, tokenVersionService.getTokenVersion("admin"));
+        assertEquals(3L, tokenVersionService.getTokenVersion("ADMIN"));
+        verify(userRepository, times(1)).findTokenVersionByUsernameIgnoreCase(any());
+    }
+
+    @Test
+    void testGetTokenVersion_UnknownUser_ReturnsNull() {
+        when(userRepository.findTokenVersionByUsernameIgnoreCase("ghost")).thenReturn(Optional.empty());
+
+        assertNull(tokenVersionService.getTokenVersion("ghost"));
+    }
+
+    @Test
+    void testGetTokenVersion_Expired_ReadAgainFromDatabase() {
+        when(userRepository.findTokenVersionByUsernameIgnoreCase("admin")).thenReturn(Optional.of(3L), Optional.of(4L));
+        assertEquals(3L, tokenVersionService.getTokenVersion("admin"));
+
+        when(clock.millis()).thenReturn(TTL - 1);
+        assertEquals(3L, tokenVersionService.getTokenVersion("admin"));
+
+        when(clock.millis()).thenReturn(TTL);
+        assertEquals(4L, tokenVersionService.getTokenVersion("admin"));
+        verify(userRepository, times(2)).findTokenVersionByUsernameIgnoreCase("admin");
+    }
+
+    @Test
+    void testIncrementTokenVersion_CacheUpdatedOnlyAfterCommit() {
+        when(userRepository.findTokenVersionByUsernameIgnoreCase("admin")).thenReturn(Optional.of(3L));
+        assertEquals(3L, tokenVersionService.getTokenVersion("admin"));
+        User user = new User("admin", "password");
+        user.setTokenVersion(3L);
+
+        assertEquals(4L, tokenVersionService.incrementTokenVersion(user));
+        assertEquals(4L, user.getTokenVersion());
+        assertEquals(3L, tokenVersionService.getTokenVersion("admin"));
+
+        ArgumentCaptor<TokenVersionChangedEvent> event = ArgumentCaptor.forClass(TokenVersionChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        tokenVersionService.onTokenVersionChanged(event.getValue());
+
+        assertEquals(4L, tokenVersionService.getTokenVersion("admin"));
+        verify(userRepository, times(1)).findTokenVersionByUsernameIgnoreCase(any());
+    }
+
+    @Test
+    void testGetTokenVersion_StaleReload_DoesNotLowerCommittedVersion() {
+        when(userRepository.findTokenVersionByUsernameIgnoreCase("admin")).thenReturn(Optional.of(3L));
+        tokenVersionService.onTokenVersionChanged(new TokenVersionChangedEvent("admin", 4L));
+
+        when(clock.millis()).thenReturn(TTL);
+
+        assertEquals(4L, tokenVersionService.getTokenVersion("admin"));
+    }
+}
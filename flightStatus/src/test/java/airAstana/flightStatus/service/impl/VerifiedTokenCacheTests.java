@@ -0,0 +1,54 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.model.dto.VerifiedToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTests {
+
+    private static VerifiedToken token(String tokenId) {
+        return new VerifiedToken(tokenId, "user", List.of(), 10_000, 0);
+    }
+
+    @Test
+    void testGet_CachedToken_ReturnedUntilExpired() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        VerifiedToken token = token("jti-1");
+        cache.put("digest-1", token, 1000, 0);
+
+        assertSame(token, cache.get("digest-1", 999));
+        assertNull(cache.get("digest-1", 1000));
+        assertEquals(0, cache.size());
+        assertNull(cache.get("digest-2", 0));
+    }
+
+    @Test
+    void testPut_MaxSizeExceeded_ExpiredEntriesDroppedFirst() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        for (int i = 0; i < 5; i++) {
+            cache.put("expired-" + i, token("expired-" + i), 100, 0);
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.put("valid-" + i, token("valid-" + i), 10_000, 0);
+        }
+
+        cache.put("valid-5", token("valid-5"), 10_000, 200);
+
+        assertEquals(6, cache.size());
+        for (int i = 0; i < 6; i++) {
+            assertNotNull(cache.get("valid-" + i, 200));
+        }
+    }
+
+    @Test
+    void testPut_MaxSizeExceeded_SizeStaysBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(VerifiedTokenCache.digest("token-" + i), token("jti-" + i), 10_000, 0);
+            assertTrue(cache.size() <= 100);
+        }
+    }
+}
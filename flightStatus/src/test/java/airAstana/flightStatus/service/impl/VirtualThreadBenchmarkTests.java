@@ -0,0 +1,90 @@
+package airAstana.flightStatus.service.impl;
+
+import airAstana.flightStatus.configuration.HttpClientConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * compares request handling on a fixed pool of platform threads, sized like the default Tomcat pool, with
+ * virtual threads when every request blocks on two time zone API calls. excluded from the default build,
+ * run with: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ */
+@Tag("benchmark")
+public class VirtualThreadBenchmarkTests {
+
+    private static final int REQUESTS = 1000;
+
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final long API_LATENCY_MILLIS = 500;
+
+    private GoogleMapsStubServer stubServer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubServer = new GoogleMapsStubServer().withCity("Almaty", 43.2, 76.9, "Asia/Almaty");
+        stubServer.setLatencyMillis(API_LATENCY_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.close();
+    }
+
+    @Test
+    void testBlockingTimeZoneLookups_VirtualThreadsOutperformPlatformPool() throws Exception {
+        run(false, Executors.newFixedThreadPool(PLATFORM_THREADS));
+        run(true, Executors.newVirtualThreadPerTaskExecutor());
+
+        Result platform = run(false, Executors.newFixedThreadPool(PLATFORM_THREADS));
+        Result virtual = run(true, Executors.newVirtualThreadPerTaskExecutor());
+
+        System.out.printf("platform threads (%d): %.0f requests/s, p99 %d ms%n", PLATFORM_THREADS, platform.throughput(), platform.p99Millis());
+        System.out.printf("virtual threads: %.0f requests/s, p99 %d ms%n", virtual.throughput(), virtual.p99Millis());
+        assertTrue(virtual.throughput() > platform.throughput());
+    }
+
+    private record Result(double throughput, long p99Millis) {
+    }
+
+    /**
+     * handles REQUESTS simulated requests on the executor, each resolving a zone through the API.
+     */
+    private Result run(boolean virtualThreads, ExecutorService requestExecutor) throws Exception {
+        HttpClient httpClient = new HttpClientConfig().timeZoneHttpClient(2000, 4, virtualThreads);
+        TimeZoneServiceImpl timeZoneService = new TimeZoneServiceImpl(httpClient, "key", stubServer.getBaseUrl(),
+                10000, 20000, REQUESTS, REQUESTS, 30000);
+
+        long start = System.nanoTime();
+        List<Future<Long>> latencies = new ArrayList<>(REQUESTS);
+        try (requestExecutor) {
+            for (int i = 0; i < REQUESTS; i++) {
+                long submitted = System.nanoTime();
+                latencies.add(requestExecutor.submit(() -> {
+                    assertEquals("Asia/Almaty", timeZoneService.getZoneId("Almaty").getId());
+                    return System.nanoTime() - submitted;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<Long> sorted = new ArrayList<>(REQUESTS);
+        for (Future<Long> latency : latencies) {
+            sorted.add(latency.get());
+        }
+        sorted.sort(null);
+        long p99 = sorted.get((int) Math.ceil(REQUESTS * 0.99) - 1) / 1_000_000;
+        return new Result(REQUESTS / (elapsed / 1_000_000_000.0), p99);
+    }
+}